@@ -0,0 +1,75 @@
+package game.bench;
+
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.collections.GameEnvironment;
+import game.geometry.Point;
+import game.objects.ball.Ball;
+import game.objects.ball.Velocity;
+
+/**
+ * @author Yuval Ezra
+ * Benchmarks of a Ball bouncing around a level, one step at a time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BallBenchmark {
+
+    private static final double STEP = 1.0 / 240;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int obstacles;
+
+    // pixels per second - the fast one crosses several Blocks in a step
+    @Param({"300", "3000"})
+    private double speed;
+
+    private GameEnvironment environment;
+    private Ball ball;
+
+    /**
+     * Creates the GameEnvironment.
+     */
+    @Setup
+    public void setUp() {
+        this.environment = Worlds.environment(this.obstacles);
+    }
+
+    /**
+     * Puts a new Ball in the bottom of the screen, so every iteration starts
+     * from the same place.
+     */
+    @Setup(Level.Iteration)
+    public void placeBall() {
+        this.ball = new Ball(new Point(Worlds.WIDTH / 2, Worlds.HEIGHT - 100), 5, Color.WHITE);
+        this.ball.setVelocity(Velocity.fromAngleAndSpeed(33, this.speed));
+        this.ball.setEnvironment(this.environment);
+    }
+
+    /**
+     * @return the Ball after it moved a step.
+     */
+    @Benchmark
+    public Ball moveOneStep() {
+        this.ball.moveOneStep(STEP);
+        return this.ball;
+    }
+}
@@ -0,0 +1,85 @@
+package game.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.collections.GameEnvironment;
+import game.geometry.Line;
+import game.objects.collidable.CollisionInfo;
+
+/**
+ * @author Yuval Ezra
+ * Benchmarks of GameEnvironment's collision queries, by the number of
+ * obstacles and the broad-phase used to find them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+    private static final int INPUTS = 1024;
+
+    @Param({"10", "100", "1000", "10000"})
+    private int obstacles;
+
+    @Param({"0", "1", "2"})
+    private int broadPhase;
+
+    // a Ball's move in a single step is short, a paddle's look-ahead is long
+    @Param({"8", "300"})
+    private double length;
+
+    private GameEnvironment environment;
+    private Line[] trajectories;
+    private int next;
+
+    /**
+     * Creates the GameEnvironment and the trajectories.
+     */
+    @Setup
+    public void setUp() {
+        this.environment = Worlds.environment(this.obstacles);
+        this.environment.setBroadPhase(this.broadPhase);
+        this.trajectories = Worlds.trajectories(INPUTS, this.length, 4);
+        this.next = 0;
+    }
+
+    /**
+     * @return the next trajectory.
+     */
+    private Line nextTrajectory() {
+        this.next = (this.next + 1) & (INPUTS - 1);
+        return this.trajectories[this.next];
+    }
+
+    /**
+     * @return the closest collisions of a point moving along a trajectory.
+     */
+    @Benchmark
+    public List<CollisionInfo> getClosestCollisions() {
+        return this.environment.getClosestCollisions(this.nextTrajectory());
+    }
+
+    /**
+     * @return the closest collisions of a Ball-sized circle moving along a trajectory.
+     */
+    @Benchmark
+    public List<CollisionInfo> getClosestCollisionsSwept() {
+        return this.environment.getClosestCollisions(this.nextTrajectory(), 5);
+    }
+}
@@ -0,0 +1,95 @@
+package game.bench;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.geometry.Line;
+import game.geometry.Point;
+import game.geometry.Rectangle;
+
+/**
+ * @author Yuval Ezra
+ * Benchmarks of the line and rectangle intersection tests. Every call uses
+ * the next of a fixed set of random inputs, so branches aren't predicted
+ * better than they would be in a game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+
+    private static final int INPUTS = 1024;
+
+    private Line[] lines;
+    private Line[] others;
+    private Rectangle[] rectangles;
+    private int next;
+
+    /**
+     * Creates the inputs.
+     */
+    @Setup
+    public void setUp() {
+        this.lines = Worlds.trajectories(INPUTS, 150, 1);
+        this.others = Worlds.trajectories(INPUTS, 150, 2);
+        Random random = new Random(3);
+        this.rectangles = new Rectangle[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            Point upperLeft = new Point(this.lines[i].start().getX() + random.nextDouble() * 100 - 50,
+                                        this.lines[i].start().getY() + random.nextDouble() * 100 - 50);
+            this.rectangles[i] = new Rectangle(upperLeft, 10 + random.nextDouble() * 60,
+                                               10 + random.nextDouble() * 30);
+        }
+        this.next = 0;
+    }
+
+    /**
+     * @return the index of the next input.
+     */
+    private int nextIndex() {
+        this.next = (this.next + 1) & (INPUTS - 1);
+        return this.next;
+    }
+
+    /**
+     * @return the intersection of two lines.
+     */
+    @Benchmark
+    public Point lineIntersectionWith() {
+        int i = this.nextIndex();
+        return this.lines[i].intersectionWith(this.others[i]);
+    }
+
+    /**
+     * @return the intersections of a line with a rectangle.
+     */
+    @Benchmark
+    public List<Point> rectangleIntersectionPoints() {
+        int i = this.nextIndex();
+        return this.rectangles[i].intersectionPoints(this.lines[i]);
+    }
+
+    /**
+     * @return the intersection of a line with a rectangle that's closest to the line's start.
+     */
+    @Benchmark
+    public Point lineClosestIntersectionToStartOfLine() {
+        int i = this.nextIndex();
+        return this.lines[i].closestIntersectionToStartOfLine(this.rectangles[i]);
+    }
+}
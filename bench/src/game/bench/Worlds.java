@@ -0,0 +1,74 @@
+package game.bench;
+
+import java.awt.Color;
+import java.util.Random;
+
+import game.collections.GameEnvironment;
+import game.geometry.Line;
+import game.geometry.Point;
+import game.geometry.Rectangle;
+import game.objects.Block;
+
+/**
+ * @author Yuval Ezra
+ * Builds the worlds the benchmarks run in: an 800x600 screen closed by
+ * border Blocks, with a grid of Blocks in its upper part, like a level.
+ */
+public final class Worlds {
+
+    public static final int WIDTH = 800;
+    public static final int HEIGHT = 600;
+    public static final int BORDER = 25;
+
+    /**
+     * Not to be constructed.
+     */
+    private Worlds() {
+    }
+
+    /**
+     * Creates a GameEnvironment with the borders and 'count' Blocks.
+     * @param count the number of Blocks, besides the borders.
+     * @return the GameEnvironment.
+     */
+    public static GameEnvironment environment(int count) {
+        GameEnvironment env = new GameEnvironment();
+        env.addCollidable(new Block(new Rectangle(new Point(0, 0), BORDER, HEIGHT), Color.GRAY, -1));
+        env.addCollidable(new Block(new Rectangle(new Point(WIDTH - BORDER, 0), BORDER, HEIGHT), Color.GRAY, -1));
+        env.addCollidable(new Block(new Rectangle(new Point(0, 0), WIDTH, BORDER), Color.GRAY, -1));
+        env.addCollidable(new Block(new Rectangle(new Point(0, HEIGHT - BORDER), WIDTH, BORDER), Color.GRAY, -1));
+
+        // the Blocks are spread on a grid over the upper two thirds of the screen
+        double areaX = BORDER + 5, areaY = BORDER + 25;
+        double areaWidth = WIDTH - 2 * areaX, areaHeight = HEIGHT * 2 / 3 - areaY;
+        int cols = Math.max(1, (int) Math.ceil(Math.sqrt(count * areaWidth / areaHeight)));
+        int rows = Math.max(1, (int) Math.ceil((double) count / cols));
+        double cellWidth = areaWidth / cols, cellHeight = areaHeight / rows;
+        for (int i = 0; i < count; i++) {
+            Point upperLeft = new Point(areaX + (i % cols) * cellWidth, areaY + (i / cols) * cellHeight);
+            env.addCollidable(new Block(new Rectangle(upperLeft, cellWidth * 0.8, cellHeight * 0.8),
+                                        Color.CYAN, -1));
+        }
+        env.buildStaticTree();
+        return env;
+    }
+
+    /**
+     * Creates random trajectories inside the borders.
+     * @param count the number of trajectories.
+     * @param length the length of every trajectory.
+     * @param seed the random seed.
+     * @return the trajectories.
+     */
+    public static Line[] trajectories(int count, double length, long seed) {
+        Random random = new Random(seed);
+        Line[] lines = new Line[count];
+        for (int i = 0; i < count; i++) {
+            double x = BORDER + random.nextDouble() * (WIDTH - 2 * BORDER);
+            double y = BORDER + random.nextDouble() * (HEIGHT - 2 * BORDER);
+            double angle = random.nextDouble() * 2 * Math.PI;
+            lines[i] = new Line(x, y, x + Math.cos(angle) * length, y + Math.sin(angle) * length);
+        }
+        return lines;
+    }
+}
@@ -11,6 +11,12 @@ import game.menu.Task;
  */
 public class Ass6Game {
 
+    // set to "true" to simulate the game on a thread of its own (see AnimationRunner.setThreaded())
+    public static final String THREADED_PROPERTY = "arkanoid.threaded";
+
+    // set to "true" to only draw the regions that changed (see AnimationRunner.setDirtyTracking())
+    public static final String DIRTY_TRACKING_PROPERTY = "arkanoid.dirtyTracking";
+
     /**
      * The main class that runs the game.
      * @param args nothing.
@@ -23,7 +29,10 @@ public class Ass6Game {
         // creating the level basics and Gameflow
         GUI gui = new GUI("Arkanoid", wid, len);
         int framesPerSecond = 60;
-        AnimationRunner ar = new AnimationRunner(gui, framesPerSecond);
+        int stepsPerSecond = 240;
+        AnimationRunner ar = new AnimationRunner(gui, framesPerSecond, stepsPerSecond);
+        ar.setThreaded(Boolean.getBoolean(THREADED_PROPERTY));
+        ar.setDirtyTracking(Boolean.getBoolean(DIRTY_TRACKING_PROPERTY));
         int lives = 7;
         GameFlow g = new GameFlow(ar, gui.getKeyboardSensor(), lives, gui);
 
@@ -0,0 +1,76 @@
+package game;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import game.misc.AssetPack;
+import game.misc.AtomicFiles;
+
+/**
+ * @author Yuval Ezra. Packs every file under the resources directory into a
+ * single asset pack, which the game maps into memory instead of reading the
+ * files one by one. The pack has to be built again when a resource changes.
+ */
+public class AssetPackBuilder {
+
+    /**
+     * Builds the pack.
+     * @param args [resources directory (resources)] [pack file (assets.pack)]
+     * @throws IOException if the resources couldn't be read, or the pack written.
+     */
+    public static void main(String[] args) throws IOException {
+        Path resources = new File(args.length > 0 ? args[0] : "resources").toPath();
+        File pack = new File(args.length > 1 ? args[1] : "assets.pack");
+
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(resources)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        List<byte[]> paths = new ArrayList<>();
+        long offset = 3 * Integer.BYTES;
+        for (Path file : files) {
+            String path = resources.relativize(file).toString().replace(File.separatorChar, '/');
+            byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IOException("Path too long: " + path);
+            }
+            paths.add(bytes);
+            offset += Short.BYTES + bytes.length + 2 * Integer.BYTES;
+        }
+
+        // replaced whole, so a half-written pack is never mapped
+        long[] size = {offset};
+        AtomicFiles.replace(pack, stream -> {
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(AssetPack.MAGIC);
+            out.writeInt(AssetPack.VERSION);
+            out.writeInt(files.size());
+
+            // the index, then the files' bytes in the same order
+            for (int i = 0; i < files.size(); i++) {
+                long length = Files.size(files.get(i));
+                if (size[0] + length > Integer.MAX_VALUE) {
+                    throw new IOException("The resources don't fit in a pack");
+                }
+                out.writeShort(paths.get(i).length);
+                out.write(paths.get(i));
+                out.writeInt((int) size[0]);
+                out.writeInt((int) length);
+                size[0] += length;
+            }
+            for (Path file : files) {
+                Files.copy(file, out);
+            }
+            out.flush();
+        });
+        System.out.println("packed " + files.size() + " resources into " + pack + " (" + size[0] + " bytes)");
+    }
+}
@@ -0,0 +1,76 @@
+package game;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import game.headless.BatchReport;
+import game.headless.BatchRunner;
+import game.headless.HeadlessEngine;
+import game.headless.LevelStats;
+import game.levels.levelCreators.AssetLoader;
+import game.levels.levelCreators.LevelSet;
+import game.levels.levelCreators.LevelSetReader;
+import game.misc.Resources;
+
+/**
+ * @author Yuval Ezra. Plays every level of every level-set many times
+ * without a window, on all cores, and prints statistics of the games.
+ */
+public class BatchSimulation {
+
+    private static final int STEPS_PER_SECOND = 240;
+    // a level that isn't over after 10 simulated minutes is given up on
+    private static final long MAX_STEPS_PER_LEVEL = STEPS_PER_SECOND * 60L * 10;
+    private static final int LIVES = 7;
+
+    /**
+     * Runs the batch.
+     * @param args [games per level (100)] [csv|json (csv)] [seed (0)] [output file (standard output)]
+     * @throws IOException if the output can't be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        String format = args.length > 1 ? args[1] : "csv";
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        if (!format.equals("csv") && !format.equals("json")) {
+            System.err.println("usage: BatchSimulation [games per level] [csv|json] [seed] [output file]");
+            System.exit(1);
+        }
+
+        AssetLoader.getInstance().preload("level_sets.txt");
+        InputStreamReader levelRead =
+                new InputStreamReader(Resources.open("level_sets.txt"));
+        List<LevelSet> levelSets = LevelSetReader.fromReader(levelRead);
+
+        ForkJoinPool pool = new ForkJoinPool();
+        BatchRunner runner = new BatchRunner(new HeadlessEngine(STEPS_PER_SECOND, MAX_STEPS_PER_LEVEL),
+                                             pool, LIVES, seed);
+        BatchReport report = new BatchReport();
+        for (LevelSet set : levelSets) {
+            List<LevelStats> stats = runner.run(set.getLvls(), runs);
+            report.add(set.getKey(), set.getDesc(), stats);
+        }
+        pool.shutdown();
+
+        Writer out;
+        if (args.length > 3) {
+            out = new OutputStreamWriter(new FileOutputStream(args[3]), StandardCharsets.UTF_8);
+        } else {
+            out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        }
+        if (format.equals("json")) {
+            report.writeJson(out);
+        } else {
+            report.writeCsv(out);
+        }
+        if (args.length > 3) {
+            out.close();
+        }
+    }
+}
@@ -1,14 +1,42 @@
 package game.animation;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
 import biuoop.DrawSurface;
 import biuoop.GUI;
+import game.objects.sprite.Sprite;
 
 /**
  * @author Yuval Ezra.
  * An Animation Runner.
  */
 public class AnimationRunner {
+
+   // the longest frame that's simulated in full - anything beyond it is
+   // dropped, so a slow frame can't make the next ones slower and slower.
+   private static final double MAX_FRAME_TIME = 0.25;
+   private static final int MAX_STEPS_PER_FRAME = 60;
+   // the number of frames whose timings are kept
+   private static final int STATS_FRAMES = 240;
+
    private GUI gui;
    private int framesPerSecond;
+   private int stepsPerSecond;
+
+   // the number of runs that have finished, used to spot nested runs (like pausing)
+   private int finishedRuns;
+
+   // whether SnapshotAnimations are simulated on a thread of their own
+   private boolean threaded;
+   // the number of runs in progress, used by the render thread to spot nested runs
+   private volatile int activeRuns;
+   // held while drawing, so a nested run and the render thread never draw together
+   private final Object guiLock = new Object();
+
+   // whether animations only draw the regions of the screen that changed
+   private boolean dirtyTracking;
+
+   private FrameStats stats;
 
    /**
     * A constructor for AnimationRunner.
@@ -16,8 +44,69 @@ public class AnimationRunner {
     * @param framesPerSecond the number of FPS in the animation.
     */
    public AnimationRunner(GUI gui, int framesPerSecond) {
+       this(gui, framesPerSecond, 0);
+   }
+
+   /**
+    * A constructor for AnimationRunner, that runs FixedStepAnimations at a fixed
+    * time-step, independently of how often they're drawn.
+    * @param gui the GUI to run this animation on.
+    * @param framesPerSecond the number of FPS in the animation.
+    * @param stepsPerSecond the number of simulation steps per second, or 0 to
+    * simulate a single step per frame.
+    */
+   public AnimationRunner(GUI gui, int framesPerSecond, int stepsPerSecond) {
        this.gui = gui;
        this.framesPerSecond = framesPerSecond;
+       this.stepsPerSecond = stepsPerSecond;
+       this.finishedRuns = 0;
+       this.threaded = false;
+       this.activeRuns = 0;
+       this.dirtyTracking = false;
+       this.stats = new FrameStats(STATS_FRAMES);
+   }
+
+   /**
+    * @return the timings of the last frames this runner ran.
+    */
+   public FrameStats getFrameStats() {
+       return this.stats;
+   }
+
+   /**
+    * Sets whether SnapshotAnimations are simulated on a thread of their own,
+    * while the calling thread only draws the latest snapshot of them. This way
+    * a slow frame doesn't hold back the simulation.
+    * Only used when the runner has a fixed time-step.
+    * @param threaded true to simulate on a separate thread.
+    */
+   public void setThreaded(boolean threaded) {
+       this.threaded = threaded;
+   }
+
+   /**
+    * Sets whether the animations run by this runner only draw the regions of
+    * the screen that changed since the last frame, copying the rest from it.
+    * Not used when drawing snapshots on a separate thread.
+    * @param dirtyTracking true to only draw the regions that changed.
+    */
+   public void setDirtyTracking(boolean dirtyTracking) {
+       this.dirtyTracking = dirtyTracking;
+   }
+
+   /**
+    * @return true if animations only draw the regions of the screen that changed.
+    */
+   public boolean isDirtyTracking() {
+       return this.dirtyTracking;
+   }
+
+   /**
+    * @return the number of simulation steps per second, or 0 if a single
+    * step is simulated per frame.
+    */
+   public int getStepsPerSecond() {
+       return this.stepsPerSecond;
    }
 
    /**
@@ -25,20 +114,239 @@ public class AnimationRunner {
     * @param animation the Animation to run.
     */
    public void run(Animation animation) {
+      this.activeRuns++;
+      try {
+          if (this.stepsPerSecond > 0 && this.threaded && animation instanceof SnapshotAnimation) {
+              this.runThreaded((SnapshotAnimation) animation);
+          } else if (this.stepsPerSecond > 0 && animation instanceof FixedStepAnimation) {
+              this.runFixedStep((FixedStepAnimation) animation);
+          } else {
+              this.runPerFrame(animation);
+          }
+      } finally {
+          this.activeRuns--;
+          this.finishedRuns++;
+      }
+   }
+
+   /**
+    * Running the Animation 'animation', a single step per frame.
+    * @param animation the Animation to run.
+    */
+   private void runPerFrame(Animation animation) {
+
       biuoop.Sleeper sleeper = new biuoop.Sleeper();
-      int millisecondsPerFrame = 1000 / this.framesPerSecond;
+      long nanosecondsPerFrame = 1000000000L / this.framesPerSecond;
       while (!animation.shouldStop()) {
-         long startTime = System.currentTimeMillis(); // timing
-         DrawSurface d = gui.getDrawSurface();
+         long startTime = System.nanoTime(); // timing
+         long gcBefore = this.stats.totalGcTime();
+         long update, show;
+         synchronized (this.guiLock) {
+             DrawSurface d = gui.getDrawSurface();
+             animation.doOneFrame(d, 1.0 / this.framesPerSecond);
+             long showStart = System.nanoTime();
+             update = showStart - startTime;
+             gui.show(d);
+             show = System.nanoTime() - showStart;
+         }
+         this.endFrame(sleeper, startTime, nanosecondsPerFrame, update, 0, show, gcBefore);
+      }
+   }
+
+   /**
+    * Running the FixedStepAnimation 'animation': every frame, the time that
+    * passed since the last one is simulated in fixed steps, and whatever is
+    * left over is used to draw the animation in between its last two steps.
+    * @param animation the FixedStepAnimation to run.
+    */
+   private void runFixedStep(FixedStepAnimation animation) {
+      biuoop.Sleeper sleeper = new biuoop.Sleeper();
+      long nanosecondsPerFrame = 1000000000L / this.framesPerSecond;
+      double step = 1.0 / this.stepsPerSecond;
+      double accumulator = 0;
+
+      if (animation.shouldStop()) {
+          return;
+      }
+      long previousTime = System.nanoTime();
+      while (true) {
+         long startTime = System.nanoTime(); // timing
+         long gcBefore = this.stats.totalGcTime();
+         accumulator += Math.min(MAX_FRAME_TIME, (startTime - previousTime) / 1e9);
+         previousTime = startTime;
+
+         // simulating the time that passed
+         int runsBefore = this.finishedRuns;
+         int steps = 0;
+         while (accumulator >= step && steps < MAX_STEPS_PER_FRAME) {
+             animation.step(step);
+             accumulator -= step;
+             steps++;
+             if (animation.shouldStop()) {
+                 return;
+             }
+         }
+         if (steps == MAX_STEPS_PER_FRAME) {
+             accumulator = 0;
+         }
+
+         // if another animation ran in the middle of a step (like pausing),
+         // the time it took shouldn't be simulated
+         if (this.finishedRuns != runsBefore) {
+             accumulator = 0;
+             previousTime = System.nanoTime();
+         }
+
+         long drawStart = System.nanoTime();
+         long draw, show;
+         synchronized (this.guiLock) {
+             DrawSurface d = gui.getDrawSurface();
+             animation.drawFrame(d, accumulator / step);
+             long showStart = System.nanoTime();
+             draw = showStart - drawStart;
+             gui.show(d);
+             show = System.nanoTime() - showStart;
+         }
+
+         // a nested run's frames were recorded by it, so its time isn't part of this frame
+         long update = this.finishedRuns != runsBefore ? 0 : drawStart - startTime;
+         this.endFrame(sleeper, startTime, nanosecondsPerFrame, update, draw, show, gcBefore);
+      }
+   }
+
+   /**
+    * Running the SnapshotAnimation 'animation' on two threads: a simulation
+    * thread steps it at a fixed time-step and publishes a snapshot of it after
+    * every step, while the calling thread draws the latest snapshot every frame.
+    * The snapshots never change once published, so drawing one needs no locking.
+    * @param animation the SnapshotAnimation to run.
+    */
+   private void runThreaded(SnapshotAnimation animation) {
+      if (animation.shouldStop()) {
+          return;
+      }
+      AtomicReference<Sprite> latest = new AtomicReference<>(animation.snapshot());
+      AtomicBoolean stopped = new AtomicBoolean(false);
+      AtomicReference<RuntimeException> failure = new AtomicReference<>();
+      int depth = this.activeRuns;
+
+      Thread simulation = new Thread(() -> {
+          try {
+              this.simulate(animation, latest);
+          } catch (RuntimeException e) {
+              failure.set(e);
+          } finally {
+              stopped.set(true);
+          }
+      }, "simulation");
+      simulation.start();
+
+      biuoop.Sleeper sleeper = new biuoop.Sleeper();
+      long nanosecondsPerFrame = 1000000000L / this.framesPerSecond;
+      while (!stopped.get()) {
+         long startTime = System.nanoTime(); // timing
 
-         animation.doOneFrame(d, 1.0 / this.framesPerSecond);
+         // while another animation runs on the simulation thread (like
+         // pausing), it draws itself
+         if (this.activeRuns == depth) {
+             long gcBefore = this.stats.totalGcTime();
+             long draw, show;
+             synchronized (this.guiLock) {
+                 DrawSurface d = gui.getDrawSurface();
+                 latest.get().drawOn(d);
+                 long showStart = System.nanoTime();
+                 draw = showStart - startTime;
+                 gui.show(d);
+                 show = System.nanoTime() - showStart;
+             }
 
-         gui.show(d);
-         long usedTime = System.currentTimeMillis() - startTime;
-         long milliSecondLeftToSleep = millisecondsPerFrame - usedTime;
+             // the updates happen on the simulation thread, so they aren't part of the frame
+             this.endFrame(sleeper, startTime, nanosecondsPerFrame, 0, draw, show, gcBefore);
+         } else {
+             sleeper.sleepFor(nanosecondsPerFrame / 1000000);
+         }
+      }
+
+      boolean interrupted = false;
+      while (simulation.isAlive()) {
+          try {
+              simulation.join();
+          } catch (InterruptedException e) {
+              interrupted = true;
+          }
+      }
+      if (interrupted) {
+          Thread.currentThread().interrupt();
+      }
+      if (failure.get() != null) {
+          throw failure.get();
+      }
+   }
+
+   /**
+    * Steps the SnapshotAnimation 'animation' at a fixed time-step until it
+    * should stop, publishing a snapshot of it to 'latest' after every step.
+    * @param animation the SnapshotAnimation to simulate.
+    * @param latest where the latest snapshot is published.
+    */
+   private void simulate(SnapshotAnimation animation, AtomicReference<Sprite> latest) {
+      biuoop.Sleeper sleeper = new biuoop.Sleeper();
+      double step = 1.0 / this.stepsPerSecond;
+      double accumulator = 0;
+
+      long previousTime = System.nanoTime();
+      while (true) {
+         long startTime = System.nanoTime();
+         accumulator += Math.min(MAX_FRAME_TIME, (startTime - previousTime) / 1e9);
+         previousTime = startTime;
+
+         int runsBefore = this.finishedRuns;
+         int steps = 0;
+         while (accumulator >= step && steps < MAX_STEPS_PER_FRAME) {
+             animation.step(step);
+             accumulator -= step;
+             steps++;
+             latest.set(animation.snapshot());
+             if (animation.shouldStop()) {
+                 return;
+             }
+         }
+         if (steps == MAX_STEPS_PER_FRAME) {
+             accumulator = 0;
+         }
+         if (this.finishedRuns != runsBefore) {
+             accumulator = 0;
+             previousTime = System.nanoTime();
+         }
+
+         // waiting for the next step to be due
+         long milliSecondLeftToSleep = (long) ((step - accumulator) * 1000);
          if (milliSecondLeftToSleep > 0) {
              sleeper.sleepFor(milliSecondLeftToSleep);
          }
       }
    }
-}
\ No newline at end of file
+
+   /**
+    * Sleeps for what's left of a frame, and records the frame's timings.
+    * @param sleeper the Sleeper to sleep with.
+    * @param startTime when the frame started, by System.nanoTime().
+    * @param nanosecondsPerFrame how long a frame should take.
+    * @param update the time spent updating the frame.
+    * @param draw the time spent drawing the frame.
+    * @param show the time spent showing the frame.
+    * @param gcBefore the total garbage collection time when the frame started.
+    */
+   private void endFrame(biuoop.Sleeper sleeper, long startTime, long nanosecondsPerFrame,
+                         long update, long draw, long show, long gcBefore) {
+      long usedTime = System.nanoTime() - startTime;
+      long milliSecondLeftToSleep = (nanosecondsPerFrame - usedTime) / 1000000;
+      long overshoot = 0;
+      if (milliSecondLeftToSleep > 0) {
+          long sleepStart = System.nanoTime();
+          sleeper.sleepFor(milliSecondLeftToSleep);
+          overshoot = Math.max(0, System.nanoTime() - sleepStart - milliSecondLeftToSleep * 1000000);
+      }
+      this.stats.record(update, draw, show, overshoot, this.stats.totalGcTime() - gcBefore);
+   }
+}
@@ -0,0 +1,24 @@
+package game.animation;
+import biuoop.DrawSurface;
+
+/**
+ * @author Yuval Ezra.
+ * An Animation whose simulation can be advanced separately from its drawing,
+ * so an AnimationRunner can run it at a fixed time-step.
+ */
+public interface FixedStepAnimation extends Animation {
+
+   /**
+    * Advances the animation by a single time-step, without drawing it.
+    * @param dt the length of the time-step.
+    */
+   void step(double dt);
+
+   /**
+    * Draws the animation, in between the previous and the current time-steps.
+    * @param d the DrawSurface to draw the animation on.
+    * @param alpha how far between the previous time-step (0) and the current
+    * one (1) to draw the animation.
+    */
+   void drawFrame(DrawSurface d, double alpha);
+}
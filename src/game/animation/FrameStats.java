@@ -0,0 +1,198 @@
+package game.animation;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Yuval Ezra
+ * Timings of the last frames an AnimationRunner ran, kept in a fixed-size
+ * ring buffer: how long updating, drawing and showing each frame took, how
+ * much longer than asked the sleep after it was, and how long the garbage
+ * collector ran during it. All times are in nanoseconds.
+ * Frames may be recorded and read on different threads.
+ */
+public class FrameStats {
+
+    /**
+     * The time spent updating the animation (or running doOneFrame, for
+     * animations that update and draw at once).
+     */
+    public static final int UPDATE = 0;
+
+    /**
+     * The time spent drawing the animation.
+     */
+    public static final int DRAW = 1;
+
+    /**
+     * The time spent in gui.show().
+     */
+    public static final int SHOW = 2;
+
+    /**
+     * How much longer than asked the sleep after the frame was.
+     */
+    public static final int OVERSHOOT = 3;
+
+    /**
+     * The time the garbage collector ran during the frame.
+     */
+    public static final int GC = 4;
+
+    private static final int METRICS = 5;
+
+    private long[][] samples;
+    private int next;
+    private int size;
+
+    // reused by percentile(), so asking for one doesn't allocate
+    private long[] sorted;
+
+    private List<GarbageCollectorMXBean> collectors;
+
+    /**
+     * A constructor for FrameStats.
+     * @param capacity the number of frames kept.
+     */
+    public FrameStats(int capacity) {
+        this.samples = new long[METRICS][capacity];
+        this.next = 0;
+        this.size = 0;
+        this.sorted = new long[capacity];
+        this.collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    }
+
+    /**
+     * Records a frame, replacing the oldest one if the buffer is full.
+     * @param update the time spent updating.
+     * @param draw the time spent drawing.
+     * @param show the time spent showing.
+     * @param overshoot how much longer than asked the sleep was.
+     * @param gc the time the garbage collector ran.
+     */
+    public synchronized void record(long update, long draw, long show, long overshoot, long gc) {
+        this.samples[UPDATE][this.next] = update;
+        this.samples[DRAW][this.next] = draw;
+        this.samples[SHOW][this.next] = show;
+        this.samples[OVERSHOOT][this.next] = overshoot;
+        this.samples[GC][this.next] = gc;
+        this.next = (this.next + 1) % this.capacity();
+        this.size = Math.min(this.size + 1, this.capacity());
+    }
+
+    /**
+     * Forgets all the recorded frames.
+     */
+    public synchronized void clear() {
+        this.next = 0;
+        this.size = 0;
+    }
+
+    /**
+     * @return the number of frames kept.
+     */
+    public int capacity() {
+        return this.sorted.length;
+    }
+
+    /**
+     * @return the number of frames recorded, up to the capacity.
+     */
+    public synchronized int size() {
+        return this.size;
+    }
+
+    /**
+     * @param metric one of UPDATE, DRAW, SHOW, OVERSHOOT and GC.
+     * @param age how many frames ago, 0 being the last one.
+     * @return the metric of that frame.
+     */
+    public synchronized long get(int metric, int age) {
+        int i = this.next - 1 - age;
+        if (i < 0) {
+            i += this.capacity();
+        }
+        return this.samples[metric][i];
+    }
+
+    /**
+     * @param age how many frames ago, 0 being the last one.
+     * @return the time spent updating, drawing and showing that frame.
+     */
+    public synchronized long frameTime(int age) {
+        return this.get(UPDATE, age) + this.get(DRAW, age) + this.get(SHOW, age);
+    }
+
+    /**
+     * @param metric one of UPDATE, DRAW, SHOW, OVERSHOOT and GC.
+     * @param p a percentile, between 0 and 100.
+     * @return the p-th percentile of the metric over the recorded frames, or 0 if there are none.
+     */
+    public synchronized long percentile(int metric, double p) {
+        System.arraycopy(this.samples[metric], 0, this.sorted, 0, this.size);
+        return this.sortedPercentile(p);
+    }
+
+    /**
+     * @param p a percentile, between 0 and 100.
+     * @return the p-th percentile of the time spent updating, drawing and
+     * showing a frame, or 0 if there are no recorded frames.
+     */
+    public synchronized long framePercentile(double p) {
+        for (int i = 0; i < this.size; i++) {
+            this.sorted[i] = this.samples[UPDATE][i] + this.samples[DRAW][i] + this.samples[SHOW][i];
+        }
+        return this.sortedPercentile(p);
+    }
+
+    /**
+     * @param metric one of UPDATE, DRAW, SHOW, OVERSHOOT and GC.
+     * @return the largest value of the metric over the recorded frames.
+     */
+    public synchronized long max(int metric) {
+        long max = 0;
+        for (int i = 0; i < this.size; i++) {
+            max = Math.max(max, this.samples[metric][i]);
+        }
+        return max;
+    }
+
+    /**
+     * @return the longest time spent updating, drawing and showing a frame.
+     */
+    public synchronized long frameMax() {
+        long max = 0;
+        for (int i = 0; i < this.size; i++) {
+            max = Math.max(max, this.samples[UPDATE][i] + this.samples[DRAW][i] + this.samples[SHOW][i]);
+        }
+        return max;
+    }
+
+    /**
+     * Sorts the first 'size' values of 'sorted', and finds their p-th
+     * percentile by the nearest-rank method.
+     * @param p a percentile, between 0 and 100.
+     * @return the p-th percentile, or 0 if there are no recorded frames.
+     */
+    private long sortedPercentile(double p) {
+        if (this.size == 0) {
+            return 0;
+        }
+        Arrays.sort(this.sorted, 0, this.size);
+        int rank = (int) Math.ceil(p / 100 * this.size);
+        return this.sorted[Math.max(0, Math.min(this.size - 1, rank - 1))];
+    }
+
+    /**
+     * @return the total time the garbage collectors ran since the JVM started.
+     */
+    public long totalGcTime() {
+        long millis = 0;
+        for (int i = 0; i < this.collectors.size(); i++) {
+            millis += Math.max(0, this.collectors.get(i).getCollectionTime());
+        }
+        return millis * 1000000L;
+    }
+}
@@ -22,6 +22,9 @@ public class MenuAnimation<T> implements Menu<T> {
     private T choice;
     private String title;
 
+    // run once the menu was first shown on the screen
+    private Runnable onShown;
+    private boolean drawn;
 
     /**
      * A constructor for menuAnimation.
@@ -35,6 +38,8 @@ public class MenuAnimation<T> implements Menu<T> {
         this.choice = null;
         this.ar = ar;
         this.title = "Menu";
+        this.onShown = null;
+        this.drawn = false;
     }
 
     /**
@@ -50,12 +55,31 @@ public class MenuAnimation<T> implements Menu<T> {
         this.choice = null;
         this.ar = ar;
         this.title = title;
+        this.onShown = null;
+        this.drawn = false;
+    }
+
+    /**
+     * Sets something to do once, right after this Menu's first frame is on
+     * the screen, like work that shouldn't hold the Menu back.
+     * @param action the thing to do.
+     */
+    public void whenShown(Runnable action) {
+        this.onShown = action;
     }
 
     @Override
     public void doOneFrame(DrawSurface d, double dt) {
         this.choice = null;
 
+        // the last frame was shown by now
+        if (this.drawn && this.onShown != null) {
+            Runnable action = this.onShown;
+            this.onShown = null;
+            action.run();
+        }
+        this.drawn = true;
+
         // black background
         d.setColor(Color.BLACK);
         d.fillRectangle(0, 0, d.getWidth(), d.getHeight());
@@ -0,0 +1,16 @@
+package game.animation;
+import game.objects.sprite.Sprite;
+
+/**
+ * @author Yuval Ezra.
+ * A FixedStepAnimation that can copy what it looks like into an unchanging
+ * Sprite, so it can be drawn on one thread while it's simulated on another.
+ */
+public interface SnapshotAnimation extends FixedStepAnimation {
+
+   /**
+    * @return a Sprite that draws the animation as it looks right now, and
+    * never changes.
+    */
+   Sprite snapshot();
+}
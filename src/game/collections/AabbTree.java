@@ -0,0 +1,414 @@
+package game.collections;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import game.geometry.Point;
+import game.geometry.Rectangle;
+import game.objects.collidable.Collidable;
+
+/**
+ * @author Yuval Ezra
+ * A bounding volume hierarchy (an axis-aligned bounding box tree) of
+ * Collidables that don't move, such as a level's Blocks.
+ * The tree is built once, and Collidables that are removed from it are
+ * only marked as removed, with their ancestors' boxes refit. Once most of
+ * the tree is removed, it's rebuilt from what remains.
+ */
+public class AabbTree {
+
+    // a small tolerance when pruning nodes, so ties are never missed
+    private static final double EPSILON = 1e-9;
+
+    // the Collidables, by insertion order
+    private Collidable[] items;
+    private boolean[] removed;
+    private int[] leafOf;
+    private Map<Collidable, Integer> indexOf;
+    private int live;
+
+    // the nodes of the tree
+    private double[] minX;
+    private double[] minY;
+    private double[] maxX;
+    private double[] maxY;
+    private int[] left;
+    private int[] right;
+    private int[] parent;
+    private int[] item;
+    private int nodeCount;
+    private int root;
+
+    // the traversal stack, reused between queries
+    private int[] stack;
+    private double[] stackT;
+    private int[] hits;
+    private int hitCount;
+
+    /**
+     * A constructor for an AabbTree.
+     * @param collidables the Collidables to build the tree from, in insertion order.
+     */
+    public AabbTree(List<Collidable> collidables) {
+        this.build(collidables);
+    }
+
+    /**
+     * Builds the tree from scratch.
+     * @param collidables the Collidables to build the tree from, in insertion order.
+     */
+    private void build(List<Collidable> collidables) {
+        int n = collidables.size();
+        this.items = collidables.toArray(new Collidable[n]);
+        this.removed = new boolean[n];
+        this.leafOf = new int[n];
+        this.indexOf = new IdentityHashMap<>();
+        for (int i = 0; i < n; i++) {
+            this.indexOf.put(this.items[i], i);
+        }
+        this.live = n;
+
+        int capacity = Math.max(1, 2 * n - 1);
+        this.minX = new double[capacity];
+        this.minY = new double[capacity];
+        this.maxX = new double[capacity];
+        this.maxY = new double[capacity];
+        this.left = new int[capacity];
+        this.right = new int[capacity];
+        this.parent = new int[capacity];
+        this.item = new int[capacity];
+        this.nodeCount = 0;
+
+        // the centers of the Collidables, used for splitting
+        double[] centerX = new double[n];
+        double[] centerY = new double[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            Rectangle r = this.items[i].getCollisionRectangle();
+            centerX[i] = r.getUpperLeft().getX() + r.getWidth() / 2;
+            centerY[i] = r.getUpperLeft().getY() + r.getHeight() / 2;
+            order[i] = i;
+        }
+
+        if (n == 0) {
+            this.root = this.newNode(-1);
+            this.setEmpty(this.root);
+        } else {
+            this.root = this.buildNode(order, 0, n, centerX, centerY);
+        }
+        this.parent[this.root] = -1;
+
+        this.stack = new int[2 * this.nodeCount + 2];
+        this.stackT = new double[2 * this.nodeCount + 2];
+        this.hits = new int[n + 1];
+        this.hitCount = 0;
+    }
+
+    /**
+     * Builds the sub-tree of order[from..to), splitting at the median of the
+     * longer axis.
+     * @param order the indices of the Collidables.
+     * @param from the first index (inclusive).
+     * @param to the last index (exclusive).
+     * @param centerX the Collidables' centers' x.
+     * @param centerY the Collidables' centers' y.
+     * @return the sub-tree's root node.
+     */
+    private int buildNode(Integer[] order, int from, int to, double[] centerX, double[] centerY) {
+        if (to - from == 1) {
+            int leaf = this.newNode(order[from]);
+            this.leafOf[order[from]] = leaf;
+            this.fitLeaf(leaf);
+            return leaf;
+        }
+
+        // the spread of the centers
+        double lowX = Double.POSITIVE_INFINITY, highX = Double.NEGATIVE_INFINITY;
+        double lowY = Double.POSITIVE_INFINITY, highY = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            lowX = Math.min(lowX, centerX[order[i]]);
+            highX = Math.max(highX, centerX[order[i]]);
+            lowY = Math.min(lowY, centerY[order[i]]);
+            highY = Math.max(highY, centerY[order[i]]);
+        }
+
+        // split along the longer axis
+        if (highX - lowX >= highY - lowY) {
+            Arrays.sort(order, from, to, (a, b) -> Double.compare(centerX[a], centerX[b]));
+        } else {
+            Arrays.sort(order, from, to, (a, b) -> Double.compare(centerY[a], centerY[b]));
+        }
+        int mid = (from + to) / 2;
+
+        int node = this.newNode(-1);
+        int l = this.buildNode(order, from, mid, centerX, centerY);
+        int r = this.buildNode(order, mid, to, centerX, centerY);
+        this.left[node] = l;
+        this.right[node] = r;
+        this.parent[l] = node;
+        this.parent[r] = node;
+        this.fitInner(node);
+        return node;
+    }
+
+    /**
+     * @param leafItem the index of the node's Collidable, or -1 for an inner node.
+     * @return a new node.
+     */
+    private int newNode(int leafItem) {
+        int node = this.nodeCount++;
+        this.item[node] = leafItem;
+        this.left[node] = -1;
+        this.right[node] = -1;
+        return node;
+    }
+
+    /**
+     * Sets the node's box to a box that nothing intersects.
+     * @param node the node.
+     */
+    private void setEmpty(int node) {
+        this.minX[node] = Double.POSITIVE_INFINITY;
+        this.minY[node] = Double.POSITIVE_INFINITY;
+        this.maxX[node] = Double.NEGATIVE_INFINITY;
+        this.maxY[node] = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Sets a leaf's box to its Collidable's collision Rectangle.
+     * @param leaf the leaf node.
+     */
+    private void fitLeaf(int leaf) {
+        Rectangle r = this.items[this.item[leaf]].getCollisionRectangle();
+        Point upperLeft = r.getUpperLeft();
+        this.minX[leaf] = upperLeft.getX();
+        this.minY[leaf] = upperLeft.getY();
+        this.maxX[leaf] = upperLeft.getX() + r.getWidth();
+        this.maxY[leaf] = upperLeft.getY() + r.getHeight();
+    }
+
+    /**
+     * Sets an inner node's box to the union of its children's boxes.
+     * @param node the inner node.
+     * @return true if the box has changed, false otherwise.
+     */
+    private boolean fitInner(int node) {
+        int l = this.left[node];
+        int r = this.right[node];
+        double x0 = Math.min(this.minX[l], this.minX[r]);
+        double y0 = Math.min(this.minY[l], this.minY[r]);
+        double x1 = Math.max(this.maxX[l], this.maxX[r]);
+        double y1 = Math.max(this.maxY[l], this.maxY[r]);
+        boolean changed = x0 != this.minX[node] || y0 != this.minY[node]
+                || x1 != this.maxX[node] || y1 != this.maxY[node];
+        this.minX[node] = x0;
+        this.minY[node] = y0;
+        this.maxX[node] = x1;
+        this.maxY[node] = y1;
+        return changed;
+    }
+
+    /**
+     * @param c a Collidable.
+     * @return true if 'c' is in the tree, false otherwise.
+     */
+    public boolean contains(Collidable c) {
+        Integer i = this.indexOf.get(c);
+        return i != null && !this.removed[i];
+    }
+
+    /**
+     * @return the number of Collidables in the tree.
+     */
+    public int size() {
+        return this.live;
+    }
+
+    /**
+     * Removes Collidable c from the tree.
+     * @param c the Collidable to remove.
+     */
+    public void remove(Collidable c) {
+        Integer i = this.indexOf.get(c);
+        if (i == null || this.removed[i]) {
+            return;
+        }
+        this.removed[i] = true;
+        this.live--;
+
+        // once most of the tree is gone, rebuild it from what's left
+        if (this.live > 0 && this.live * 2 < this.items.length) {
+            List<Collidable> remaining = new ArrayList<>(this.live);
+            for (int k = 0; k < this.items.length; k++) {
+                if (!this.removed[k]) {
+                    remaining.add(this.items[k]);
+                }
+            }
+            this.build(remaining);
+            return;
+        }
+
+        // empty the leaf and refit its ancestors, until nothing changes
+        int node = this.leafOf[i];
+        this.setEmpty(node);
+        node = this.parent[node];
+        while (node != -1 && this.fitInner(node)) {
+            node = this.parent[node];
+        }
+    }
+
+    /**
+     * Finds the Collidables in the tree that a circle moving along the line
+     * (x0, y0) -> (x0 + dx, y0 + dy) hits first, visiting the tree front-to-back
+     * and skipping every node that's further away than the closest hit found so far.
+     * Allocates nothing once 'closest' has grown.
+     * @param x0 the line's start x.
+     * @param y0 the line's start y.
+     * @param dx the line's change in x.
+     * @param dy the line's change in y.
+     * @param radius the circle's radius, or 0 for a plain line (see Rectangle.rayHitT).
+     * @param closest the List to put the Collidables hit first in, in the
+     * order they were inserted.
+     * @return the time between 0 and 1 of the first hit, or 1 if there were none.
+     */
+    public double closestHits(double x0, double y0, double dx, double dy, double radius,
+                              List<Collidable> closest) {
+        double minT = 1;
+        boolean found = false;
+        this.hitCount = 0;
+        closest.clear();
+
+        int top = this.push(this.root, this.entryT(this.root, x0, y0, dx, dy, radius), 0, minT);
+        while (top > 0) {
+            top--;
+            int node = this.stack[top];
+            if (this.stackT[top] > minT + EPSILON) {
+                continue;
+            }
+
+            // a leaf - do the exact test
+            if (this.item[node] != -1) {
+                int i = this.item[node];
+                if (this.removed[i]) {
+                    continue;
+                }
+                Rectangle rect = this.items[i].getCollisionRectangle();
+                double t = radius > 0 ? rect.sweepHitT(x0, y0, dx, dy, radius) : rect.rayHitT(x0, y0, dx, dy);
+                if (t < 0) {
+                    continue;
+                }
+                if (!found || t < minT) {
+                    minT = t;
+                    found = true;
+                    this.hitCount = 0;
+                    closest.clear();
+                    this.insertByOrder(i, closest);
+                } else if (t == minT) {
+                    this.insertByOrder(i, closest);
+                }
+                continue;
+            }
+
+            // an inner node - push the further child first, so the nearer is visited first
+            int l = this.left[node];
+            int r = this.right[node];
+            double tl = this.entryT(l, x0, y0, dx, dy, radius);
+            double tr = this.entryT(r, x0, y0, dx, dy, radius);
+            if (tl <= tr) {
+                top = this.push(r, tr, top, minT);
+                top = this.push(l, tl, top, minT);
+            } else {
+                top = this.push(l, tl, top, minT);
+                top = this.push(r, tr, top, minT);
+            }
+        }
+        return minT;
+    }
+
+    /**
+     * Pushes a node to the traversal stack, unless it's further than 'minT'.
+     * @param node the node.
+     * @param t the time at which the line enters the node's box.
+     * @param top the current top of the stack.
+     * @param minT the time of the closest hit so far.
+     * @return the new top of the stack.
+     */
+    private int push(int node, double t, int top, double minT) {
+        if (t > minT + EPSILON) {
+            return top;
+        }
+        this.stack[top] = node;
+        this.stackT[top] = t;
+        return top + 1;
+    }
+
+    /**
+     * Adds a hit Collidable while keeping the hits in insertion order.
+     * @param i the index of the Collidable that was hit.
+     * @param closest the Collidables hit first so far.
+     */
+    private void insertByOrder(int i, List<Collidable> closest) {
+        int at = this.hitCount;
+        while (at > 0 && this.hits[at - 1] > i) {
+            this.hits[at] = this.hits[at - 1];
+            at--;
+        }
+        this.hits[at] = i;
+        this.hitCount++;
+        closest.add(at, this.items[i]);
+    }
+
+    /**
+     * Finds when the line enters a node's box grown by 'radius' (the slab method).
+     * @param node the node.
+     * @param x0 the line's start x.
+     * @param y0 the line's start y.
+     * @param dx the line's change in x.
+     * @param dy the line's change in y.
+     * @param radius how much to grow the box by on every side.
+     * @return the time between 0 and 1 at which the line enters the box,
+     * or positive infinity if it misses it.
+     */
+    private double entryT(int node, double x0, double y0, double dx, double dy, double radius) {
+        if (this.minX[node] > this.maxX[node]) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double x1 = this.minX[node] - radius;
+        double y1 = this.minY[node] - radius;
+        double x2 = this.maxX[node] + radius;
+        double y2 = this.maxY[node] + radius;
+        double tMin = 0;
+        double tMax = 1;
+
+        if (dx == 0) {
+            if (x0 < x1 || x0 > x2) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (x1 - x0) / dx;
+            double t2 = (x2 - x0) / dx;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        if (dy == 0) {
+            if (y0 < y1 || y0 > y2) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (y1 - y0) / dy;
+            double t2 = (y2 - y0) / dy;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        // a small slack, so segments that graze an edge aren't lost to rounding
+        if (tMin > tMax + EPSILON) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return tMin;
+    }
+}
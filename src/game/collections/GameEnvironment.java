@@ -2,6 +2,7 @@ package game.collections;
 
 import game.geometry.Line;
 import game.geometry.Point;
+import game.geometry.Rectangle;
 import game.objects.collidable.Collidable;
 import game.objects.collidable.CollisionInfo;
 
@@ -11,13 +12,57 @@ import game.objects.collidable.CollisionInfo;
  */
 public class GameEnvironment {
 
+    // the size of the area covered by the grid, and of a single grid cell
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+    private static final int CELL_SIZE = 50;
+
+    /**
+     * Collision queries go over all obstacles.
+     */
+    public static final int LINEAR_SCAN = 0;
+
+    /**
+     * Collision queries go over the obstacles in the grid cells the trajectory touches.
+     */
+    public static final int GRID = 1;
+
+    /**
+     * Collision queries walk a bounding box tree of the obstacles, front-to-back.
+     */
+    public static final int AABB_TREE = 2;
+
     private java.util.List<Collidable> obstacles;
 
+    // Collidables that don't move are kept in the grid and the tree, moving
+    // ones are always checked.
+    private UniformGrid grid;
+    private AabbTree tree;
+    private boolean treeIsStale;
+    private java.util.List<Collidable> movingObstacles;
+    private java.util.List<Collidable> candidates;
+    private java.util.List<Collidable> closest;
+    private int broadPhase;
+
+    // the order the Collidables were added in, so ties between them are
+    // resolved the same way whichever broad phase found them
+    private java.util.Map<Collidable, Integer> order;
+    private int nextOrder;
+
     /**
      * A GameEnvironemnt constructor.
      */
     public GameEnvironment() {
         this.obstacles = new java.util.LinkedList<Collidable>();
+        this.grid = new UniformGrid(WIDTH, HEIGHT, CELL_SIZE);
+        this.movingObstacles = new java.util.ArrayList<Collidable>();
+        this.candidates = new java.util.ArrayList<Collidable>();
+        this.closest = new java.util.ArrayList<Collidable>();
+        this.tree = null;
+        this.treeIsStale = true;
+        this.broadPhase = AABB_TREE;
+        this.order = new java.util.IdentityHashMap<>();
+        this.nextOrder = 0;
     }
 
     /**
@@ -25,16 +70,33 @@ public class GameEnvironment {
      * @param obstacles the obstacles to add to this GameEnvironment.
      */
     public GameEnvironment(java.util.List<Collidable> obstacles) {
-        this.obstacles = new java.util.LinkedList<Collidable>();
-        this.obstacles.addAll(obstacles);
+        this();
+        for (Collidable c : obstacles) {
+            this.addCollidable(c);
+        }
     }
 
     /**
-     * Add the given Collidable to the environment.
+     * Add the given Collidable to the environment. The Collidable's
+     * collision Rectangle should not change while it's in the environment.
      * @param c the new Collidable to add for the GameEnvironment.
      */
     public void addCollidable(Collidable c) {
         this.obstacles.add(c);
+        this.order.put(c, this.nextOrder++);
+        this.grid.add(c);
+        this.treeIsStale = true;
+    }
+
+    /**
+     * Add the given moving Collidable to the environment. Its collision
+     * Rectangle may change at any time.
+     * @param c the new moving Collidable to add for the GameEnvironment.
+     */
+    public void addMovingCollidable(Collidable c) {
+        this.obstacles.add(c);
+        this.order.put(c, this.nextOrder++);
+        this.movingObstacles.add(c);
     }
 
     /**
@@ -43,6 +105,46 @@ public class GameEnvironment {
      */
     public void removeCollidable(Collidable c) {
         this.obstacles.remove(c);
+        this.order.remove(c);
+        this.grid.remove(c);
+        this.movingObstacles.remove(c);
+        if (this.tree != null) {
+            this.tree.remove(c);
+        }
+    }
+
+    /**
+     * Builds the bounding box tree from the Collidables that don't move.
+     * Called once the level's Blocks were added; if more are added later,
+     * the tree is rebuilt on the next query.
+     */
+    public void buildStaticTree() {
+        java.util.List<Collidable> statics = new java.util.ArrayList<>();
+        for (Collidable c : this.obstacles) {
+            if (!this.movingObstacles.contains(c)) {
+                statics.add(c);
+            }
+        }
+        this.tree = new AabbTree(statics);
+        this.treeIsStale = false;
+    }
+
+    /**
+     * Sets the way collision queries find the obstacles to check.
+     * @param mode LINEAR_SCAN, GRID or AABB_TREE.
+     */
+    public void setBroadPhase(int mode) {
+        if (mode != LINEAR_SCAN && mode != GRID && mode != AABB_TREE) {
+            throw new IllegalArgumentException("Unknown broad phase " + mode);
+        }
+        this.broadPhase = mode;
+    }
+
+    /**
+     * @return the way collision queries find the obstacles to check.
+     */
+    public int getBroadPhase() {
+        return this.broadPhase;
     }
 
     /**
@@ -53,41 +155,113 @@ public class GameEnvironment {
     }
 
     /**
-     * Assume an object moving from line.start() to line.end().
+     * @return the moving obstacles in this GameEnvironment.
+     */
+    public java.util.List<Collidable> getMovingObstacles() {
+        return this.movingObstacles;
+    }
+
+    /**
+     * Finds the obstacles that the trajectory might cross. The returned
+     * List is reused by the next query.
      * @param trajectory the moving object's trajectory.
-     * @return If this object will not collide with any of the Collidables
-     * in this collection, return null. Else, return the information
-     * about the closest collision that is going to occur.
+     * @param radius how far around the trajectory to look.
+     * @return the obstacles to check the trajectory against.
      */
-    public CollisionInfo getClosestCollision(Line trajectory) {
-        Point closestCollision = null;
-        Collidable closestCollidable = null;
+    private java.util.List<Collidable> candidatesFor(Line trajectory, double radius) {
+        if (this.broadPhase == LINEAR_SCAN) {
+            return this.obstacles;
+        }
 
-        // Go over all obstacles
-        for (Collidable c : this.obstacles) {
-            Point collision = trajectory.closestIntersectionToStartOfLine(c.getCollisionRectangle());
+        // the trajectory's bounding box
+        double minX = Math.min(trajectory.start().getX(), trajectory.end().getX()) - radius;
+        double maxX = Math.max(trajectory.start().getX(), trajectory.end().getX()) + radius;
+        double minY = Math.min(trajectory.start().getY(), trajectory.end().getY()) - radius;
+        double maxY = Math.max(trajectory.start().getY(), trajectory.end().getY()) + radius;
+
+        java.util.List<Collidable> inGrid = this.grid.query(minX, minY, maxX, maxY);
+        this.candidates.clear();
+        for (int i = 0; i < inGrid.size(); i++) {
+            this.candidates.add(inGrid.get(i));
+        }
+        for (int i = 0; i < this.movingObstacles.size(); i++) {
+            this.candidates.add(this.movingObstacles.get(i));
+        }
+        return this.candidates;
+    }
+
+    /**
+     * Finds the obstacles that a circle moving along the trajectory hits first,
+     * and puts them in 'closest', in the order they were added to the environment.
+     * Only compares hit times, so nothing is allocated per obstacle.
+     * @param trajectory the path of the circle's center.
+     * @param radius the circle's radius, or 0 for a plain line (see Rectangle.rayHitT).
+     * @return the time between 0 and 1 of the first hit.
+     */
+    private double findClosest(Line trajectory, double radius) {
+        double x0 = trajectory.start().getX();
+        double y0 = trajectory.start().getY();
+        double dx = trajectory.end().getX() - x0;
+        double dy = trajectory.end().getY() - y0;
+        double minT = 1;
+        java.util.List<Collidable> toCheck;
+
+        this.closest.clear();
+        if (this.broadPhase == AABB_TREE) {
+
+            // the tree finds the closest static obstacles, the moving ones are checked after it
+            if (this.treeIsStale) {
+                this.buildStaticTree();
+            }
+            minT = this.tree.closestHits(x0, y0, dx, dy, radius, this.closest);
+            toCheck = this.movingObstacles;
+        } else {
+            toCheck = this.candidatesFor(trajectory, radius);
+        }
+
+        // Go over all obstacles near the trajectory
+        for (Collidable c : toCheck) {
+            Rectangle rect = c.getCollisionRectangle();
+            double t = radius > 0 ? rect.sweepHitT(x0, y0, dx, dy, radius) : rect.rayHitT(x0, y0, dx, dy);
 
             // If there's an intersection between the obstacle and the trajectory
-            if (collision != null) {
-
-                // If there's no closest Collidable, make this one the new closest
-                if (closestCollision == null) {
-                    closestCollidable = c;
-                    closestCollision = collision;
-                } else if (trajectory.start().distance(collision) < trajectory.start().distance(closestCollision)) {
-
-                    // And if there is already one, and that obstacle's distance from the start of the line is shorter
-                    // make it the new closest Collidable.
-                    closestCollidable = c;
-                    closestCollision = collision;
+            if (t >= 0) {
+
+                // If it's the new closest obstacle, clear the list and add it
+                if (t < minT) {
+                    minT = t;
+                    this.closest.clear();
+                    this.closest.add(c);
+                } else if (t == minT) {
+
+                    // If its distance is equal to to other obstacles, add it to the list.
+                    this.closest.add(c);
                 }
             }
         }
-        if (closestCollision == null) {
+
+        // the moving obstacles were checked last, but ties keep the order of a linear scan
+        if (this.closest.size() > 1) {
+            this.closest.sort((a, b) -> Integer.compare(this.order.get(a), this.order.get(b)));
+        }
+        return minT;
+    }
+
+    /**
+     * Assume an object moving from line.start() to line.end().
+     * @param trajectory the moving object's trajectory.
+     * @return If this object will not collide with any of the Collidables
+     * in this collection, return null. Else, return the information
+     * about the closest collision that is going to occur.
+     */
+    public CollisionInfo getClosestCollision(Line trajectory) {
+        this.findClosest(trajectory, 0);
+        if (this.closest.isEmpty()) {
             return null;
         }
-        CollisionInfo info = new CollisionInfo(closestCollision, closestCollidable);
-        return info;
+        Collidable c = this.closest.get(0);
+        Point collision = trajectory.closestIntersectionToStartOfLine(c.getCollisionRectangle());
+        return new CollisionInfo(collision, c);
     }
 
     /**
@@ -96,30 +270,42 @@ public class GameEnvironment {
      * would cross.
      */
     public java.util.List<CollisionInfo> getClosestCollisions(Line trajectory) {
+        this.findClosest(trajectory, 0);
+        if (this.closest.isEmpty()) {
+            return null;
+        }
         java.util.List<CollisionInfo> collisions = new java.util.LinkedList<>();
-        double minDistance = trajectory.length();
-
-        // Go over all obstacles
-        for (Collidable c : this.obstacles) {
+        for (int i = 0; i < this.closest.size(); i++) {
+            Collidable c = this.closest.get(i);
             Point collision = trajectory.closestIntersectionToStartOfLine(c.getCollisionRectangle());
+            collisions.add(new CollisionInfo(collision, c));
+        }
+        return collisions;
+    }
 
-            // If there's an intersection between the obstacle and the trajectory
-            if (collision != null) {
+    /**
+     * Finds the Collidables that a circle moving along the trajectory touches
+     * first. A circle that already overlaps a Collidable never touches it.
+     * @param trajectory the path of the circle's center.
+     * @param radius the circle's radius.
+     * @return null if the circle doesn't touch anything, else a List of
+     * CollisionInfos whose collision points are where the circle touches
+     * each Collidable.
+     */
+    public java.util.List<CollisionInfo> getClosestCollisions(Line trajectory, double radius) {
+        double t = this.findClosest(trajectory, radius);
+        if (this.closest.isEmpty()) {
+            return null;
+        }
 
-                // If it's the new closest obstacle, clear the list and add it
-                if (trajectory.start().distance(collision) < minDistance) {
-                    minDistance = trajectory.start().distance(collision);
-                    collisions.clear();
-                    collisions.add(new CollisionInfo(collision, c));
-                } else if (trajectory.start().distance(collision) == minDistance) {
+        // where the center is when the circle touches the Collidables
+        double x = trajectory.start().getX() + t * (trajectory.end().getX() - trajectory.start().getX());
+        double y = trajectory.start().getY() + t * (trajectory.end().getY() - trajectory.start().getY());
 
-                    // If its distance is equal to to other obstacles, add it to the list.
-                    collisions.add(new CollisionInfo(collision, c));
-                }
-            }
-        }
-        if (collisions.size() == 0) {
-            return null;
+        java.util.List<CollisionInfo> collisions = new java.util.LinkedList<>();
+        for (int i = 0; i < this.closest.size(); i++) {
+            Collidable c = this.closest.get(i);
+            collisions.add(new CollisionInfo(c.getCollisionRectangle().closestPointTo(x, y), c));
         }
         return collisions;
     }
@@ -1,7 +1,19 @@
 package game.collections;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 import biuoop.DrawSurface;
+import game.misc.ImageDrawSurface;
+import game.objects.sprite.BoundedSprite;
+import game.objects.sprite.FrozenSprite;
+import game.objects.sprite.InterpolatedSprite;
+import game.objects.sprite.Snapshottable;
 import game.objects.sprite.Sprite;
 /**
  * @author Yuval Ezra
@@ -10,11 +22,59 @@ import game.objects.sprite.Sprite;
 public class SpriteCollection {
     private java.util.List<Sprite> sprites;
 
+    // beyond this number of dirty regions, the whole frame is drawn again
+    private static final int MAX_DIRTY = 16;
+
+    // the Sprites that don't move, drawn below all the others
+    private StaticLayer staticLayer;
+
+    // whether only the regions that changed since the last frame are drawn again
+    private boolean dirtyTracking;
+    private boolean showDirtyRegions;
+
+    // the last frame, kept between frames when tracking dirty regions
+    private ImageDrawSurface frame;
+    private Map<Sprite, java.awt.Rectangle> lastBounds;
+    private Map<Sprite, Object> lastLooks;
+    private List<java.awt.Rectangle> dirty;
+    private boolean allDirty;
+
     /**
      * A SpriteCollection constructor.
      */
     public SpriteCollection() {
         this.sprites = new java.util.LinkedList<Sprite>();
+        this.staticLayer = new StaticLayer();
+        this.sprites.add(this.staticLayer);
+        this.dirtyTracking = false;
+        this.showDirtyRegions = false;
+        this.frame = null;
+        this.lastBounds = new IdentityHashMap<>();
+        this.lastLooks = new IdentityHashMap<>();
+        this.dirty = new ArrayList<>();
+        this.allDirty = true;
+    }
+
+    /**
+     * Sets whether only the regions of the screen that changed since the last
+     * frame are drawn again, while the rest is copied from the last frame.
+     * A region changes where a BoundedSprite moved or its look changed, where
+     * a Sprite was added or removed, and where the static layer changed.
+     * Sprites that aren't BoundedSprites make the whole frame change.
+     * @param dirtyTracking true to only draw the regions that changed.
+     */
+    public void setDirtyTracking(boolean dirtyTracking) {
+        this.dirtyTracking = dirtyTracking;
+        this.allDirty = true;
+    }
+
+    /**
+     * Sets whether the regions that were drawn again are outlined on the
+     * screen, to see how much of it is drawn. Only used when tracking dirty regions.
+     * @param showDirtyRegions true to outline the regions drawn again.
+     */
+    public void setShowDirtyRegions(boolean showDirtyRegions) {
+        this.showDirtyRegions = showDirtyRegions;
     }
 
     /**
@@ -25,12 +85,28 @@ public class SpriteCollection {
         this.sprites.add(s);
     }
 
+    /**
+     * Adds a Sprite that doesn't move to the collection. It's drawn below
+     * all the Sprites added by addSprite(), and is only drawn again when it
+     * changes.
+     * @param s a Sprite to add to the collection.
+     */
+    public void addStaticSprite(Sprite s) {
+        this.staticLayer.add(s);
+    }
+
     /**
      * Removes Sprite s from this SpriteCollection.
      * @param s the Sprite to remove from this SpriteCollection.
      */
     public void removeSprite(Sprite s) {
-        this.sprites.remove(s);
+        if (!this.sprites.remove(s)) {
+            this.staticLayer.remove(s);
+        } else {
+            // the region it was last drawn in, or the whole frame if it's unknown
+            this.lastLooks.remove(s);
+            this.invalidate(this.lastBounds.remove(s));
+        }
     }
 
     /**
@@ -49,8 +125,180 @@ public class SpriteCollection {
      * @param d a surface to draw on the sprites.
      */
     public void drawAllOn(DrawSurface d) {
+        if (this.dirtyTracking) {
+            this.drawDirtyOn(d, 1);
+            return;
+        }
         for (Sprite s : this.sprites) {
             s.drawOn(d);
         }
     }
+
+    /**
+     * call drawOn(d) on all Sprites, drawing the ones that move in between
+     * their previous and current positions.
+     * @param d a surface to draw on the sprites.
+     * @param alpha how far between the previous position (0) and the current
+     * one (1) to draw moving Sprites.
+     */
+    public void drawAllOn(DrawSurface d, double alpha) {
+        if (this.dirtyTracking) {
+            this.drawDirtyOn(d, alpha);
+            return;
+        }
+        for (Sprite s : this.sprites) {
+            drawSprite(d, s, alpha);
+        }
+    }
+
+    /**
+     * Draws again the regions of the last frame that changed since it was
+     * drawn, and then draws the frame on 'd'.
+     * @param d a surface to draw on the sprites.
+     * @param alpha how far between the previous position (0) and the current
+     * one (1) to draw moving Sprites.
+     */
+    private void drawDirtyOn(DrawSurface d, double alpha) {
+        if (this.frame == null || this.frame.getWidth() != d.getWidth()
+                || this.frame.getHeight() != d.getHeight()) {
+            if (this.frame != null) {
+                this.frame.dispose();
+            }
+            BufferedImage image = new BufferedImage(d.getWidth(), d.getHeight(), BufferedImage.TYPE_INT_RGB);
+            this.frame = new ImageDrawSurface(image);
+            this.allDirty = true;
+        }
+
+        // collecting the regions that changed
+        List<java.awt.Rectangle> changed = this.staticLayer.update(d.getWidth(), d.getHeight());
+        if (changed == null) {
+            this.invalidate(null);
+        } else {
+            for (int i = 0; i < changed.size(); i++) {
+                this.invalidate(changed.get(i));
+            }
+        }
+        for (Sprite s : this.sprites) {
+            if (s == this.staticLayer) {
+                continue;
+            }
+            if (!(s instanceof BoundedSprite)) {
+                this.invalidate(null);
+                continue;
+            }
+            BoundedSprite b = (BoundedSprite) s;
+            java.awt.Rectangle bounds = b.getBounds();
+            Object look = b.getLook();
+            java.awt.Rectangle last = this.lastBounds.put(s, bounds);
+            Object lastLook = this.lastLooks.put(s, look);
+            if (last == null || look == null || !last.equals(bounds) || !Objects.equals(look, lastLook)) {
+                this.invalidate(last);
+                this.invalidate(bounds);
+            }
+        }
+
+        // drawing the Sprites that touch each region again, over the static layer
+        if (this.allDirty) {
+            this.dirty.clear();
+            this.dirty.add(new java.awt.Rectangle(0, 0, d.getWidth(), d.getHeight()));
+        }
+        for (int i = 0; i < this.dirty.size(); i++) {
+            java.awt.Rectangle area = this.dirty.get(i);
+            this.frame.setClip(area.x, area.y, area.width, area.height);
+            for (Sprite s : this.sprites) {
+                if (s == this.staticLayer) {
+                    this.staticLayer.drawImageOn(this.frame);
+                } else if (!(s instanceof BoundedSprite) || this.lastBounds.get(s).intersects(area)) {
+                    drawSprite(this.frame, s, alpha);
+                }
+            }
+        }
+        this.frame.clearClip();
+        d.drawImage(0, 0, this.frame.getImage());
+
+        if (this.showDirtyRegions) {
+            d.setColor(Color.MAGENTA);
+            for (int i = 0; i < this.dirty.size(); i++) {
+                java.awt.Rectangle area = this.dirty.get(i);
+                d.drawRectangle(area.x, area.y, area.width - 1, area.height - 1);
+            }
+        }
+        this.dirty.clear();
+        this.allDirty = false;
+    }
+
+    /**
+     * Adds a region to the ones drawn again on the next frame, merging it with
+     * the regions it overlaps.
+     * @param area the region, or null for the whole frame.
+     */
+    private void invalidate(java.awt.Rectangle area) {
+        if (this.allDirty) {
+            return;
+        }
+        if (area == null) {
+            this.allDirty = true;
+            return;
+        }
+        if (area.isEmpty()) {
+            return;
+        }
+        java.awt.Rectangle merged = new java.awt.Rectangle(area);
+        boolean grew = true;
+        while (grew) {
+            grew = false;
+            for (int i = 0; i < this.dirty.size(); i++) {
+                if (this.dirty.get(i).intersects(merged)) {
+                    merged.add(this.dirty.remove(i));
+                    grew = true;
+                    break;
+                }
+            }
+        }
+        this.dirty.add(merged);
+        if (this.dirty.size() > MAX_DIRTY) {
+            this.allDirty = true;
+        }
+    }
+
+    /**
+     * Draws a Sprite, in between its previous and current positions if it moves.
+     * @param d a surface to draw on the sprite.
+     * @param s the Sprite to draw.
+     * @param alpha how far between the previous position (0) and the current
+     * one (1) to draw it.
+     */
+    private static void drawSprite(DrawSurface d, Sprite s, double alpha) {
+        if (s instanceof InterpolatedSprite) {
+            ((InterpolatedSprite) s).drawOn(d, alpha);
+        } else {
+            s.drawOn(d);
+        }
+    }
+
+    /**
+     * Copies how all Sprites look right now. Sprites that aren't Snapshottable
+     * are assumed to never change, and are drawn as they are. The static
+     * layer is copied as its image.
+     * @param width the width of the screen.
+     * @param height the height of the screen.
+     * @return a Sprite that draws all Sprites as they look right now.
+     */
+    public Sprite snapshot(int width, int height) {
+        java.util.List<Sprite> frozen = new java.util.ArrayList<>(this.sprites.size());
+        for (Sprite s : this.sprites) {
+            if (s == this.staticLayer) {
+                frozen.add(this.staticLayer.snapshot(width, height));
+            } else if (s instanceof Snapshottable) {
+                frozen.add(((Snapshottable) s).snapshot());
+            } else {
+                frozen.add(s);
+            }
+        }
+        return new FrozenSprite(d -> {
+            for (Sprite s : frozen) {
+                s.drawOn(d);
+            }
+        });
+    }
 }
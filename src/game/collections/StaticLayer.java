@@ -0,0 +1,209 @@
+package game.collections;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import biuoop.DrawSurface;
+import game.misc.ImageDrawSurface;
+import game.objects.collidable.Collidable;
+import game.objects.sprite.FrozenSprite;
+import game.objects.sprite.Snapshottable;
+import game.objects.sprite.Sprite;
+
+/**
+ * @author Yuval Ezra
+ * A layer of Sprites that don't move, like backgrounds and Blocks, drawn
+ * once to an off-screen image that's then drawn on the screen every frame.
+ * Only the parts of the image that changed are drawn again: where a Sprite
+ * was added or removed, and where a Snapshottable Sprite's look changed,
+ * which shows by it returning a different snapshot than before. Collidables
+ * are assumed to be drawn inside their collision Rectangle (and its stroke),
+ * other Sprites are assumed to cover the whole layer.
+ */
+public class StaticLayer implements Sprite {
+
+    // beyond this number of changed areas, the whole layer is drawn again
+    private static final int MAX_DIRTY = 32;
+
+    private List<Sprite> sprites;
+    private Map<Sprite, Sprite> looks;
+
+    private List<java.awt.Rectangle> dirty;
+    private boolean allDirty;
+    private ImageDrawSurface surface;
+
+    // a copy of the layer's image, drawn by snapshots until the layer changes
+    private Sprite frozen;
+
+    /**
+     * A constructor for an empty StaticLayer.
+     */
+    public StaticLayer() {
+        this.sprites = new ArrayList<>();
+        this.looks = new IdentityHashMap<>();
+        this.dirty = new ArrayList<>();
+        this.allDirty = true;
+        this.surface = null;
+        this.frozen = null;
+    }
+
+    /**
+     * Adds a Sprite on top of the layer.
+     * @param s the Sprite to add.
+     */
+    public void add(Sprite s) {
+        this.sprites.add(s);
+        this.invalidate(bounds(s));
+    }
+
+    /**
+     * Removes a Sprite from the layer.
+     * @param s the Sprite to remove.
+     * @return true if 's' was in the layer.
+     */
+    public boolean remove(Sprite s) {
+        if (!this.sprites.remove(s)) {
+            return false;
+        }
+        this.looks.remove(s);
+        this.invalidate(bounds(s));
+        return true;
+    }
+
+    /**
+     * Marks an area of the layer to be drawn again on the next frame.
+     * @param area the area, or null for the whole layer.
+     */
+    public void invalidate(java.awt.Rectangle area) {
+        if (area == null || this.dirty.size() >= MAX_DIRTY) {
+            this.allDirty = true;
+            this.dirty.clear();
+        } else if (!this.allDirty) {
+            this.dirty.add(area);
+        }
+    }
+
+    @Override
+    public void drawOn(DrawSurface d) {
+        this.update(d.getWidth(), d.getHeight());
+        this.drawImageOn(d);
+    }
+
+    /**
+     * Draws again the parts of the layer's image that changed since the last update.
+     * @param width the width of the screen the layer covers.
+     * @param height the height of the screen the layer covers.
+     * @return the areas that were drawn again, or null if the whole layer was.
+     */
+    public List<java.awt.Rectangle> update(int width, int height) {
+        if (this.surface == null || this.surface.getWidth() != width
+                || this.surface.getHeight() != height) {
+            if (this.surface != null) {
+                this.surface.dispose();
+            }
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            this.surface = new ImageDrawSurface(image);
+            this.invalidate(null);
+        }
+
+        // finding the Sprites whose look changed since the last frame
+        for (int i = 0; i < this.sprites.size(); i++) {
+            Sprite s = this.sprites.get(i);
+            if (s instanceof Snapshottable) {
+                Sprite look = ((Snapshottable) s).snapshot();
+                if (this.looks.put(s, look) != look) {
+                    this.invalidate(bounds(s));
+                }
+            }
+        }
+
+        List<java.awt.Rectangle> changed = null;
+        this.surface.resetIncomplete();
+        if (this.allDirty) {
+            this.surface.clearClip();
+            this.repaint(null);
+        } else {
+            changed = new ArrayList<>(this.dirty);
+            for (int i = 0; i < this.dirty.size(); i++) {
+                java.awt.Rectangle area = this.dirty.get(i);
+                this.surface.setClip(area.x, area.y, area.width, area.height);
+                this.repaint(area);
+            }
+            this.surface.clearClip();
+        }
+        this.dirty.clear();
+
+        // images that weren't loaded yet are drawn again on the next frame
+        this.allDirty = this.surface.isIncomplete();
+        return changed;
+    }
+
+    /**
+     * Draws the layer's image as it was last updated, without updating it.
+     * @param d the DrawSurface to draw on.
+     */
+    public void drawImageOn(DrawSurface d) {
+        d.drawImage(0, 0, this.surface.getImage());
+    }
+
+    /**
+     * Draws the Sprites that touch an area of the layer, on a cleared background.
+     * @param area the area, or null for the whole layer.
+     */
+    private void repaint(java.awt.Rectangle area) {
+        this.surface.setColor(Color.BLACK);
+        if (area == null) {
+            this.surface.fillRectangle(0, 0, this.surface.getWidth(), this.surface.getHeight());
+        } else {
+            this.surface.fillRectangle(area.x, area.y, area.width, area.height);
+        }
+        for (int i = 0; i < this.sprites.size(); i++) {
+            Sprite s = this.sprites.get(i);
+            java.awt.Rectangle b = bounds(s);
+            if (area == null || b == null || b.intersects(area)) {
+                s.drawOn(this.surface);
+            }
+        }
+    }
+
+    @Override
+    public void timePassed(double dt) {
+        for (int i = 0; i < this.sprites.size(); i++) {
+            this.sprites.get(i).timePassed(dt);
+        }
+    }
+
+    /**
+     * Updates the layer's image (see update()), and copies it into a Sprite
+     * that never changes. The copy is kept, and returned again, until a
+     * Sprite of the layer is added, removed, or changes its look.
+     * @param width the width of the screen the layer covers.
+     * @param height the height of the screen the layer covers.
+     * @return a Sprite that draws the layer as it looks right now.
+     */
+    public Sprite snapshot(int width, int height) {
+        List<java.awt.Rectangle> changed = this.update(width, height);
+        if (this.frozen == null || changed == null || !changed.isEmpty()) {
+            BufferedImage image = this.surface.getImage();
+            BufferedImage copy = new BufferedImage(image.getColorModel(), image.copyData(null),
+                                                   image.isAlphaPremultiplied(), null);
+            this.frozen = new FrozenSprite(d -> d.drawImage(0, 0, copy));
+        }
+        return this.frozen;
+    }
+
+    /**
+     * @param s a Sprite of the layer.
+     * @return the area 's' is drawn in, or null if it may cover the whole layer.
+     */
+    private static java.awt.Rectangle bounds(Sprite s) {
+        if (!(s instanceof Collidable)) {
+            return null;
+        }
+        return ((Collidable) s).getCollisionRectangle().getPixelBounds();
+    }
+}
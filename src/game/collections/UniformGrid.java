@@ -0,0 +1,191 @@
+package game.collections;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import game.geometry.Point;
+import game.geometry.Rectangle;
+import game.objects.collidable.Collidable;
+
+/**
+ * @author Yuval Ezra
+ * A uniform grid of Collidables - a broad-phase index that buckets every
+ * Collidable by the cells its collision Rectangle covers, so a query only
+ * has to look at the Collidables near a given area.
+ * The grid covers (0, 0) to (width, height); anything outside of it is
+ * clamped into the border cells, so it is still found.
+ */
+public class UniformGrid {
+
+    private static final Comparator<Entry> BY_SEQ = (a, b) -> Integer.compare(a.seq, b.seq);
+
+    private double cellSize;
+    private int cols;
+    private int rows;
+    private List<List<Entry>> cells;
+    private Map<Collidable, Entry> entries;
+
+    // the insertion order of the Collidables, used to keep query results in
+    // the same order as a linear scan would produce them.
+    private int nextSeq;
+
+    // marks Entries that were already collected on the current query
+    private int queryStamp;
+    private List<Entry> found;
+    private List<Collidable> result;
+
+    /**
+     * A constructor for a UniformGrid.
+     * @param width the width of the area the grid covers.
+     * @param height the height of the area the grid covers.
+     * @param cellSize the width and height of a single cell.
+     */
+    public UniformGrid(double width, double height, double cellSize) {
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cells = new ArrayList<>(this.cols * this.rows);
+        for (int i = 0; i < this.cols * this.rows; i++) {
+            this.cells.add(new ArrayList<Entry>());
+        }
+        this.entries = new IdentityHashMap<>();
+        this.nextSeq = 0;
+        this.queryStamp = 0;
+        this.found = new ArrayList<>();
+        this.result = new ArrayList<>();
+    }
+
+    /**
+     * Adds Collidable c to the grid, according to its current collision Rectangle.
+     * @param c the Collidable to add.
+     */
+    public void add(Collidable c) {
+        if (this.entries.containsKey(c)) {
+            return;
+        }
+        Rectangle rect = c.getCollisionRectangle();
+        Point upperLeft = rect.getUpperLeft();
+        Entry e = new Entry(c, this.nextSeq++);
+        e.minCol = this.col(upperLeft.getX());
+        e.maxCol = this.col(upperLeft.getX() + rect.getWidth());
+        e.minRow = this.row(upperLeft.getY());
+        e.maxRow = this.row(upperLeft.getY() + rect.getHeight());
+
+        for (int r = e.minRow; r <= e.maxRow; r++) {
+            for (int col = e.minCol; col <= e.maxCol; col++) {
+                this.cells.get(r * this.cols + col).add(e);
+            }
+        }
+        this.entries.put(c, e);
+    }
+
+    /**
+     * Removes Collidable c from the grid.
+     * @param c the Collidable to remove.
+     */
+    public void remove(Collidable c) {
+        Entry e = this.entries.remove(c);
+        if (e == null) {
+            return;
+        }
+        for (int r = e.minRow; r <= e.maxRow; r++) {
+            for (int col = e.minCol; col <= e.maxCol; col++) {
+                this.cells.get(r * this.cols + col).remove(e);
+            }
+        }
+    }
+
+    /**
+     * @return the number of Collidables in the grid.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Finds all the Collidables whose cells touch the given box.
+     * The returned List is reused by the next query, and is ordered by
+     * the order in which the Collidables were added.
+     * @param minX the box's left side.
+     * @param minY the box's top side.
+     * @param maxX the box's right side.
+     * @param maxY the box's bottom side.
+     * @return the Collidables that might intersect the box.
+     */
+    public List<Collidable> query(double minX, double minY, double maxX, double maxY) {
+        this.queryStamp++;
+        this.found.clear();
+        this.result.clear();
+
+        int minCol = this.col(minX);
+        int maxCol = this.col(maxX);
+        int minRow = this.row(minY);
+        int maxRow = this.row(maxY);
+
+        // go over the cells the box touches and collect each Entry once
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                List<Entry> cell = this.cells.get(r * this.cols + col);
+                for (int i = 0; i < cell.size(); i++) {
+                    Entry e = cell.get(i);
+                    if (e.stamp != this.queryStamp) {
+                        e.stamp = this.queryStamp;
+                        this.found.add(e);
+                    }
+                }
+            }
+        }
+
+        // sorted once, instead of keeping the list sorted as it grows
+        this.found.sort(BY_SEQ);
+        for (int i = 0; i < this.found.size(); i++) {
+            this.result.add(this.found.get(i).collidable);
+        }
+        return this.result;
+    }
+
+    /**
+     * @param x an x coordinate.
+     * @return the column of 'x', clamped into the grid.
+     */
+    private int col(double x) {
+        int c = (int) Math.floor(x / this.cellSize);
+        return Math.max(0, Math.min(this.cols - 1, c));
+    }
+
+    /**
+     * @param y a y coordinate.
+     * @return the row of 'y', clamped into the grid.
+     */
+    private int row(double y) {
+        int r = (int) Math.floor(y / this.cellSize);
+        return Math.max(0, Math.min(this.rows - 1, r));
+    }
+
+    /**
+     * A Collidable in the grid, and the cells it covers.
+     */
+    private static class Entry {
+        private Collidable collidable;
+        private int seq;
+        private int stamp;
+        private int minCol;
+        private int maxCol;
+        private int minRow;
+        private int maxRow;
+
+        /**
+         * A constructor for an Entry.
+         * @param collidable the Collidable.
+         * @param seq its insertion order.
+         */
+        Entry(Collidable collidable, int seq) {
+            this.collidable = collidable;
+            this.seq = seq;
+            this.stamp = 0;
+        }
+    }
+}
@@ -222,18 +222,37 @@ public class Line {
      * @return the closest intersection to this line's start with 'rect'.
      */
     public Point closestIntersectionToStartOfLine(Rectangle rect) {
-        java.util.List<Point> intersections = rect.intersectionPoints(this);
-        Point closest = null;
-        double minDistance = this.length();
-        for (Point inter : intersections) {
-
-            // For each intersection with the line, check if it's closer to the start
-            // of the line than the others.
-            if (this.start.distance(inter) <= minDistance) {
-                minDistance = this.start.distance(inter);
-                closest = inter;
-            }
+        double x0 = this.start.getX();
+        double y0 = this.start.getY();
+        double dx = this.end.getX() - x0;
+        double dy = this.end.getY() - y0;
+
+        double t = rect.rayHitT(x0, y0, dx, dy);
+        if (t < 0) {
+            return null;
+        }
+
+        // put the point exactly on the side that was hit, so rounding
+        // doesn't move it off the Rectangle's border
+        double x = x0 + t * dx;
+        double y = y0 + t * dy;
+        Point upperLeft = rect.getUpperLeft();
+        switch (rect.rayHitFace(x0, y0, dx, dy)) {
+            case Rectangle.LEFT:
+                x = upperLeft.getX();
+                break;
+            case Rectangle.RIGHT:
+                x = upperLeft.getX() + rect.getWidth();
+                break;
+            case Rectangle.TOP:
+                y = upperLeft.getY();
+                break;
+            case Rectangle.BOTTOM:
+                y = upperLeft.getY() + rect.getHeight();
+                break;
+            default:
+                break;
         }
-        return closest;
+        return new Point(x, y);
     }
 }
\ No newline at end of file
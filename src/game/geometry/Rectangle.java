@@ -5,6 +5,31 @@ package game.geometry;
  */
 public class Rectangle {
 
+    /**
+     * The line doesn't hit the Rectangle.
+     */
+    public static final int NO_HIT = 0;
+
+    /**
+     * The line hits the Rectangle's left side.
+     */
+    public static final int LEFT = 1;
+
+    /**
+     * The line hits the Rectangle's right side.
+     */
+    public static final int RIGHT = 2;
+
+    /**
+     * The line hits the Rectangle's top side.
+     */
+    public static final int TOP = 3;
+
+    /**
+     * The line hits the Rectangle's bottom side.
+     */
+    public static final int BOTTOM = 4;
+
     private Point upperLeft;
     private double width;
     private double height;
@@ -56,6 +81,177 @@ public class Rectangle {
         return intersections;
     }
 
+    /**
+     * Finds the first time the line (x0, y0) -> (x0 + dx, y0 + dy) crosses this
+     * Rectangle's border, as a fraction of the way along the line (the slab method).
+     * If the line starts inside the Rectangle, that's where it leaves it.
+     * Allocates nothing.
+     * @param x0 the line's start x.
+     * @param y0 the line's start y.
+     * @param dx the line's change in x.
+     * @param dy the line's change in y.
+     * @return the time between 0 and 1 at which the line crosses the border,
+     * or -1 if it never does.
+     */
+    public double rayHitT(double x0, double y0, double dx, double dy) {
+        return rayHit(this.upperLeft.getX(), this.upperLeft.getY(), this.width, this.height,
+                      x0, y0, dx, dy, false, false);
+    }
+
+    /**
+     * Finds the side of this Rectangle that the line (x0, y0) -> (x0 + dx, y0 + dy)
+     * crosses first, as in rayHitT. Allocates nothing.
+     * @param x0 the line's start x.
+     * @param y0 the line's start y.
+     * @param dx the line's change in x.
+     * @param dy the line's change in y.
+     * @return LEFT, RIGHT, TOP or BOTTOM, or NO_HIT if the line never crosses the border.
+     */
+    public int rayHitFace(double x0, double y0, double dx, double dy) {
+        return (int) rayHit(this.upperLeft.getX(), this.upperLeft.getY(), this.width, this.height,
+                            x0, y0, dx, dy, false, true);
+    }
+
+    /**
+     * Finds the time at which a circle of the given radius, whose center moves
+     * along (x0, y0) -> (x0 + dx, y0 + dy), first touches this Rectangle.
+     * That's when the center enters this Rectangle grown by 'radius' on
+     * every side. A circle that already overlaps the Rectangle never hits it.
+     * Allocates nothing.
+     * @param x0 the center's start x.
+     * @param y0 the center's start y.
+     * @param dx the center's change in x.
+     * @param dy the center's change in y.
+     * @param radius the circle's radius.
+     * @return the time between 0 and 1 at which the circle touches this
+     * Rectangle, or -1 if it doesn't.
+     */
+    public double sweepHitT(double x0, double y0, double dx, double dy, double radius) {
+        return rayHit(this.upperLeft.getX() - radius, this.upperLeft.getY() - radius,
+                      this.width + 2 * radius, this.height + 2 * radius, x0, y0, dx, dy, true, false);
+    }
+
+    /**
+     * Finds the side of this Rectangle that a moving circle touches first, as in sweepHitT.
+     * Allocates nothing.
+     * @param x0 the center's start x.
+     * @param y0 the center's start y.
+     * @param dx the center's change in x.
+     * @param dy the center's change in y.
+     * @param radius the circle's radius.
+     * @return LEFT, RIGHT, TOP or BOTTOM, or NO_HIT if the circle doesn't touch this Rectangle.
+     */
+    public int sweepHitFace(double x0, double y0, double dx, double dy, double radius) {
+        return (int) rayHit(this.upperLeft.getX() - radius, this.upperLeft.getY() - radius,
+                            this.width + 2 * radius, this.height + 2 * radius, x0, y0, dx, dy, true, true);
+    }
+
+    /**
+     * @param x a point's x.
+     * @param y a point's y.
+     * @return the Point of this Rectangle (its border or inside) that's closest to (x, y).
+     */
+    public Point closestPointTo(double x, double y) {
+        double minX = this.upperLeft.getX();
+        double minY = this.upperLeft.getY();
+        return new Point(Math.max(minX, Math.min(minX + this.width, x)),
+                         Math.max(minY, Math.min(minY + this.height, y)));
+    }
+
+    /**
+     * @param x a point's x.
+     * @param y a point's y.
+     * @param margin how far around this Rectangle still counts as inside it.
+     * @return true if (x, y) is strictly inside this Rectangle grown by 'margin'
+     * on every side, false otherwise.
+     */
+    public boolean contains(double x, double y, double margin) {
+        double minX = this.upperLeft.getX() - margin;
+        double minY = this.upperLeft.getY() - margin;
+        return minX < x && x < minX + this.width + 2 * margin
+                && minY < y && y < minY + this.height + 2 * margin;
+    }
+
+    /**
+     * The slab test behind rayHitT and rayHitFace.
+     * @param x the Rectangle's left side.
+     * @param y the Rectangle's top side.
+     * @param w the Rectangle's width.
+     * @param h the Rectangle's height.
+     * @param x0 the line's start x.
+     * @param y0 the line's start y.
+     * @param dx the line's change in x.
+     * @param dy the line's change in y.
+     * @param entryOnly true to ignore lines that start inside the Rectangle.
+     * @param face true to return the side that's crossed, false to return the time.
+     * @return the time at which the border is crossed (or -1), or the side
+     * that's crossed (or NO_HIT), according to 'face'.
+     */
+    private static double rayHit(double x, double y, double w, double h,
+                                 double x0, double y0, double dx, double dy,
+                                 boolean entryOnly, boolean face) {
+        double miss = face ? NO_HIT : -1;
+
+        // the times at which the line enters and leaves the Rectangle, and through which sides
+        double tEnter = Double.NEGATIVE_INFINITY;
+        double tLeave = Double.POSITIVE_INFINITY;
+        int enterFace = NO_HIT;
+        int leaveFace = NO_HIT;
+
+        if (dx == 0) {
+            if (x0 < x || x0 > x + w) {
+                return miss;
+            }
+        } else {
+            double tLeft = (x - x0) / dx;
+            double tRight = (x + w - x0) / dx;
+            double near = dx > 0 ? tLeft : tRight;
+            double far = dx > 0 ? tRight : tLeft;
+            tEnter = near;
+            enterFace = dx > 0 ? LEFT : RIGHT;
+            tLeave = far;
+            leaveFace = dx > 0 ? RIGHT : LEFT;
+        }
+
+        if (dy == 0) {
+            if (y0 < y || y0 > y + h) {
+                return miss;
+            }
+        } else {
+            double tTop = (y - y0) / dy;
+            double tBottom = (y + h - y0) / dy;
+            double near = dy > 0 ? tTop : tBottom;
+            double far = dy > 0 ? tBottom : tTop;
+            if (near > tEnter) {
+                tEnter = near;
+                enterFace = dy > 0 ? TOP : BOTTOM;
+            }
+            if (far < tLeave) {
+                tLeave = far;
+                leaveFace = dy > 0 ? BOTTOM : TOP;
+            }
+        }
+
+        if (tEnter > tLeave) {
+            return miss;
+        }
+
+        // starting outside - the entry; starting inside - the exit.
+        double t = Math.max(tEnter, 0);
+        int side = enterFace;
+        if (tEnter < 0) {
+            if (entryOnly) {
+                return miss;
+            }
+            t = tLeave;
+            side = leaveFace;
+        }
+        if (t < 0 || t > 1) {
+            return miss;
+        }
+        return face ? side : t;
+    }
+
     /**
      * @return the width and height of the rectangle.
      */
@@ -76,4 +272,16 @@ public class Rectangle {
     public Point getUpperLeft() {
         return this.upperLeft;
     }
+
+    /**
+     * @return the pixels the Rectangle covers when drawn, with a pixel around
+     * it for its stroke and rounding.
+     */
+    public java.awt.Rectangle getPixelBounds() {
+        int x = (int) Math.floor(this.upperLeft.getX()) - 1;
+        int y = (int) Math.floor(this.upperLeft.getY()) - 1;
+        int w = (int) Math.ceil(this.upperLeft.getX() + this.width) + 2 - x;
+        int h = (int) Math.ceil(this.upperLeft.getY() + this.height) + 2 - y;
+        return new java.awt.Rectangle(x, y, w, h);
+    }
 }
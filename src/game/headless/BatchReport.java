@@ -0,0 +1,168 @@
+package game.headless;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * @author Yuval Ezra
+ * A summary of the LevelStats of level-sets, that can be written as CSV
+ * (a row per level) or as JSON (an object per level-set).
+ */
+public class BatchReport {
+
+    private static final String CSV_HEADER = "level_set,level,runs,clears,clear_rate,out_of_steps,"
+            + "clear_time_p50,clear_time_p90,mean_lives_lost,score_mean,score_min,score_p50,score_p90,"
+            + "score_max,mean_block_hits";
+
+    private List<String> setKeys;
+    private List<String> setNames;
+    private List<List<LevelStats>> setStats;
+
+    /**
+     * A constructor for an empty BatchReport.
+     */
+    public BatchReport() {
+        this.setKeys = new ArrayList<>();
+        this.setNames = new ArrayList<>();
+        this.setStats = new ArrayList<>();
+    }
+
+    /**
+     * Adds a level-set's statistics to the report.
+     * @param key the level-set's key.
+     * @param name the level-set's name.
+     * @param stats the statistics of the level-set's levels.
+     */
+    public void add(String key, String name, List<LevelStats> stats) {
+        this.setKeys.add(key);
+        this.setNames.add(name);
+        this.setStats.add(stats);
+    }
+
+    /**
+     * Writes the report as CSV, a row per level.
+     * @param out where to write the report.
+     * @throws IOException if writing fails.
+     */
+    public void writeCsv(Writer out) throws IOException {
+        out.write(CSV_HEADER + "\n");
+        for (int i = 0; i < this.setKeys.size(); i++) {
+            for (LevelStats s : this.setStats.get(i)) {
+                StringBuilder hits = new StringBuilder();
+                for (double h : s.getMeanBlockHits()) {
+                    if (hits.length() > 0) {
+                        hits.append(' ');
+                    }
+                    hits.append(number(h));
+                }
+                out.write(csv(this.setNames.get(i)) + "," + csv(s.getLevelName()) + "," + s.getRuns() + ","
+                        + s.getClears() + "," + number(rate(s)) + "," + s.getOutOfSteps() + ","
+                        + number(s.getClearTimePercentile(50)) + "," + number(s.getClearTimePercentile(90)) + ","
+                        + number(s.getMeanLivesLost()) + "," + number(s.getMeanScore()) + ","
+                        + number(s.getScorePercentile(0)) + "," + number(s.getScorePercentile(50)) + ","
+                        + number(s.getScorePercentile(90)) + "," + number(s.getScorePercentile(100)) + ","
+                        + csv(hits.toString()) + "\n");
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the report as JSON, an array of level-sets with their levels.
+     * @param out where to write the report.
+     * @throws IOException if writing fails.
+     */
+    public void writeJson(Writer out) throws IOException {
+        out.write("[\n");
+        for (int i = 0; i < this.setKeys.size(); i++) {
+            out.write("  {\"key\": " + json(this.setKeys.get(i)) + ", \"name\": " + json(this.setNames.get(i))
+                    + ", \"levels\": [\n");
+            List<LevelStats> stats = this.setStats.get(i);
+            for (int j = 0; j < stats.size(); j++) {
+                LevelStats s = stats.get(j);
+                StringBuilder hits = new StringBuilder();
+                for (double h : s.getMeanBlockHits()) {
+                    if (hits.length() > 0) {
+                        hits.append(", ");
+                    }
+                    hits.append(jsonNumber(h));
+                }
+                out.write("    {\"name\": " + json(s.getLevelName()) + ", \"runs\": " + s.getRuns()
+                        + ", \"clears\": " + s.getClears() + ", \"clearRate\": " + jsonNumber(rate(s))
+                        + ", \"outOfSteps\": " + s.getOutOfSteps()
+                        + ", \"clearTime\": {\"p50\": " + jsonNumber(s.getClearTimePercentile(50))
+                        + ", \"p90\": " + jsonNumber(s.getClearTimePercentile(90)) + "}"
+                        + ", \"meanLivesLost\": " + jsonNumber(s.getMeanLivesLost())
+                        + ", \"score\": {\"mean\": " + jsonNumber(s.getMeanScore())
+                        + ", \"min\": " + jsonNumber(s.getScorePercentile(0))
+                        + ", \"p50\": " + jsonNumber(s.getScorePercentile(50))
+                        + ", \"p90\": " + jsonNumber(s.getScorePercentile(90))
+                        + ", \"max\": " + jsonNumber(s.getScorePercentile(100)) + "}"
+                        + ", \"meanBlockHits\": [" + hits + "]}"
+                        + (j < stats.size() - 1 ? "," : "") + "\n");
+            }
+            out.write("  ]}" + (i < this.setKeys.size() - 1 ? "," : "") + "\n");
+        }
+        out.write("]\n");
+        out.flush();
+    }
+
+    /**
+     * @param s a level's statistics.
+     * @return the part of the games in which the level was cleared.
+     */
+    private static double rate(LevelStats s) {
+        return s.getRuns() == 0 ? 0 : (double) s.getClears() / s.getRuns();
+    }
+
+    /**
+     * @param d a number.
+     * @return 'd' with up to 3 decimal places, or an empty string if it's NaN.
+     */
+    private static String number(double d) {
+        if (Double.isNaN(d)) {
+            return "";
+        }
+        return String.format(Locale.ROOT, "%.3f", d).replaceAll("\\.?0+$", "");
+    }
+
+    /**
+     * @param d a number.
+     * @return 'd' as a JSON number, or null if it's NaN.
+     */
+    private static String jsonNumber(double d) {
+        return Double.isNaN(d) ? "null" : number(d);
+    }
+
+    /**
+     * @param s a string.
+     * @return 's' as a CSV field, quoted if it has to be.
+     */
+    private static String csv(String s) {
+        if (s.contains(",") || s.contains("\"") || s.contains("\n")) {
+            return "\"" + s.replace("\"", "\"\"") + "\"";
+        }
+        return s;
+    }
+
+    /**
+     * @param s a string.
+     * @return 's' as a JSON string.
+     */
+    private static String json(String s) {
+        StringBuilder b = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                b.append('\\').append(c);
+            } else if (c < 0x20) {
+                b.append(String.format("\\u%04x", (int) c));
+            } else {
+                b.append(c);
+            }
+        }
+        return b.append('"').toString();
+    }
+}
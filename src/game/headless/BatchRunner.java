@@ -0,0 +1,108 @@
+package game.headless;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import game.levels.LevelInformation;
+
+/**
+ * @author Yuval Ezra
+ * Plays many games of the same levels on all cores at once, each with its
+ * own seeded FollowBallScript, and gathers their statistics per level.
+ * Every game is independent - it starts with full lives and a fresh copy of
+ * the level - and game i of every level uses the seed baseSeed + i, so a
+ * batch gives the same statistics no matter how many threads ran it.
+ */
+public class BatchRunner {
+
+    // the number of games a fork-join task plays before it stops splitting
+    private static final int GAMES_PER_TASK = 4;
+
+    private HeadlessEngine engine;
+    private ForkJoinPool pool;
+    private int lives;
+    private long baseSeed;
+
+    /**
+     * A constructor for a BatchRunner.
+     * @param engine the engine that plays the games.
+     * @param pool the pool that the games are played on.
+     * @param lives the amount of starting lives in every game.
+     * @param baseSeed the seed of the first game of every level.
+     */
+    public BatchRunner(HeadlessEngine engine, ForkJoinPool pool, int lives, long baseSeed) {
+        this.engine = engine;
+        this.pool = pool;
+        this.lives = lives;
+        this.baseSeed = baseSeed;
+    }
+
+    /**
+     * Plays 'runs' games of every level.
+     * @param levels the levels to play.
+     * @param runs the number of games of every level.
+     * @return the statistics of every level, in the order of 'levels'.
+     */
+    public List<LevelStats> run(List<LevelInformation> levels, int runs) {
+        LevelResult[] results = new LevelResult[levels.size() * runs];
+        this.pool.invoke(new Games(levels, runs, results, 0, results.length));
+
+        List<LevelStats> stats = new ArrayList<>();
+        for (int i = 0; i < levels.size(); i++) {
+            LevelStats s = new LevelStats(levels.get(i).levelName());
+            for (int run = 0; run < runs; run++) {
+                s.add(results[i * runs + run]);
+            }
+            stats.add(s);
+        }
+        return stats;
+    }
+
+    /**
+     * A fork-join task that plays a range of the batch's games, and stores
+     * each result in its own slot.
+     */
+    private class Games extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private List<LevelInformation> levels;
+        private int runs;
+        private LevelResult[] results;
+        private int from;
+        private int to;
+
+        /**
+         * A constructor for Games.
+         * @param levels the levels of the batch.
+         * @param runs the number of games of every level.
+         * @param results where the results are stored, game i of level l in slot l * runs + i.
+         * @param from the first slot to play.
+         * @param to the slot after the last one to play.
+         */
+        Games(List<LevelInformation> levels, int runs, LevelResult[] results, int from, int to) {
+            this.levels = levels;
+            this.runs = runs;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= GAMES_PER_TASK) {
+                for (int slot = this.from; slot < this.to; slot++) {
+                    LevelInformation level = this.levels.get(slot / this.runs);
+                    KeyboardScript script = new FollowBallScript(BatchRunner.this.baseSeed + slot % this.runs);
+                    this.results[slot] = BatchRunner.this.engine.runLevel(level, script, BatchRunner.this.lives);
+                }
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new Games(this.levels, this.runs, this.results, this.from, middle),
+                      new Games(this.levels, this.runs, this.results, middle, this.to));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package game.headless;
+
+import java.util.Random;
+
+import biuoop.KeyboardSensor;
+import game.levels.GameLevel;
+import game.objects.Paddle;
+import game.objects.ball.Ball;
+
+/**
+ * @author Yuval Ezra
+ * A KeyboardScript that moves the Paddle under the lowest falling Ball.
+ * Every time that Ball starts falling, the script picks a random spot on the
+ * Paddle to catch it with, so different seeds bounce the Ball differently.
+ */
+public class FollowBallScript implements KeyboardScript {
+
+    // how close to the target the Paddle has to be to stop moving
+    private static final double DEAD_ZONE = 3;
+    // the part of the Paddle's half-width that the random spot is picked from
+    private static final double AIM_RANGE = 0.8;
+
+    private Random random;
+    private Ball target;
+    private double aim;
+
+    /**
+     * A constructor for a FollowBallScript.
+     * @param seed the seed of the random spots on the Paddle.
+     */
+    public FollowBallScript(long seed) {
+        this.random = new Random(seed);
+        this.target = null;
+        this.aim = 0;
+    }
+
+    @Override
+    public void update(GameLevel level, ScriptedKeyboard keyboard, long step) {
+        keyboard.releaseAll();
+        Paddle paddle = level.getPaddle();
+
+        // the lowest falling Ball is the most urgent one
+        Ball lowest = null;
+        for (Ball b : level.getBalls()) {
+            if (b.getVelocity().getDY() > 0 && (lowest == null || b.getY() > lowest.getY())) {
+                lowest = b;
+            }
+        }
+        if (lowest == null) {
+            this.target = null;
+            return;
+        }
+        if (lowest != this.target) {
+            this.target = lowest;
+            this.aim = (this.random.nextDouble() * 2 - 1) * AIM_RANGE * paddle.getWidth() / 2;
+        }
+
+        double spot = paddle.getX() + paddle.getWidth() / 2 + this.aim;
+        if (lowest.getX() < spot - DEAD_ZONE) {
+            keyboard.press(KeyboardSensor.LEFT_KEY);
+        } else if (lowest.getX() > spot + DEAD_ZONE) {
+            keyboard.press(KeyboardSensor.RIGHT_KEY);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package game.headless;
+
+import game.animation.Animation;
+import game.animation.AnimationRunner;
+import game.animation.FixedStepAnimation;
+
+/**
+ * @author Yuval Ezra
+ * An AnimationRunner that runs without a window and without waiting: it
+ * steps FixedStepAnimations back to back, as fast as it can, and draws
+ * nothing. Animations that only show something (countdowns, pause screens,
+ * end screens) are skipped, since there's nobody to show them to.
+ */
+public class HeadlessAnimationRunner extends AnimationRunner {
+
+    private long maxSteps;
+    private long steps;
+    private Runnable beforeStep;
+
+    /**
+     * A constructor for a HeadlessAnimationRunner.
+     * @param stepsPerSecond the number of simulation steps per simulated second.
+     * @param maxSteps the number of steps after which running stops, even if
+     * the animation didn't - so a Ball that never hits anything can't run forever.
+     */
+    public HeadlessAnimationRunner(int stepsPerSecond, long maxSteps) {
+        super(null, stepsPerSecond, stepsPerSecond);
+        this.maxSteps = maxSteps;
+        this.steps = 0;
+        this.beforeStep = null;
+    }
+
+    /**
+     * Sets what's run before every step, like a KeyboardScript.
+     * @param beforeStep what to run before every step, or null for nothing.
+     */
+    public void setBeforeStep(Runnable beforeStep) {
+        this.beforeStep = beforeStep;
+    }
+
+    /**
+     * Starts counting steps from 0 again.
+     */
+    public void resetSteps() {
+        this.steps = 0;
+    }
+
+    /**
+     * @return the number of steps run since the last reset.
+     */
+    public long getSteps() {
+        return this.steps;
+    }
+
+    /**
+     * @return true if running stopped because the maximal number of steps was run.
+     */
+    public boolean isOutOfSteps() {
+        return this.steps >= this.maxSteps;
+    }
+
+    @Override
+    public void run(Animation animation) {
+        if (!(animation instanceof FixedStepAnimation)) {
+            return;
+        }
+        FixedStepAnimation fixedStep = (FixedStepAnimation) animation;
+        double dt = 1.0 / this.getStepsPerSecond();
+        while (!fixedStep.shouldStop()) {
+            if (this.isOutOfSteps()) {
+                return;
+            }
+            if (this.beforeStep != null) {
+                this.beforeStep.run();
+            }
+            fixedStep.step(dt);
+            this.steps++;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package game.headless;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import game.levels.GameLevel;
+import game.levels.LevelInformation;
+import game.misc.Counter;
+
+/**
+ * @author Yuval Ezra
+ * Plays GameLevels without a window: a KeyboardScript presses the keys, and
+ * the levels are stepped back to back, as fast as the CPU allows, instead of
+ * in real time.
+ */
+public class HeadlessEngine {
+
+    private int stepsPerSecond;
+    private long maxStepsPerLevel;
+
+    /**
+     * A constructor for a HeadlessEngine.
+     * @param stepsPerSecond the number of simulation steps per simulated second.
+     * @param maxStepsPerLevel the number of steps after which a level is given
+     * up on, even if it didn't end.
+     */
+    public HeadlessEngine(int stepsPerSecond, long maxStepsPerLevel) {
+        this.stepsPerSecond = stepsPerSecond;
+        this.maxStepsPerLevel = maxStepsPerLevel;
+    }
+
+    /**
+     * Plays the levels one after the other, like GameFlow does, until all of
+     * them are played or the lives run out.
+     * @param levels the levels to play.
+     * @param script the script that plays the levels.
+     * @param lives the amount of starting lives.
+     * @return the result of every level that was played.
+     */
+    public List<LevelResult> runLevels(List<LevelInformation> levels, KeyboardScript script, int lives) {
+        Counter livesLeft = new Counter(lives);
+        Counter score = new Counter(0);
+        List<LevelResult> results = new ArrayList<>();
+        for (LevelInformation levelInfo : levels) {
+            LevelResult result = this.runLevel(levelInfo, script, livesLeft, score);
+            results.add(result);
+            if (!result.isCleared()) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Plays a single level on its own, with a score of 0.
+     * @param levelInfo the level to play.
+     * @param script the script that plays the level.
+     * @param lives the amount of starting lives.
+     * @return the level's result.
+     */
+    public LevelResult runLevel(LevelInformation levelInfo, KeyboardScript script, int lives) {
+        return this.runLevel(levelInfo, script, new Counter(lives), new Counter(0));
+    }
+
+    /**
+     * Plays a single level, until it's cleared, the lives run out or the
+     * maximal number of steps is reached.
+     * @param levelInfo the level to play.
+     * @param script the script that plays the level.
+     * @param lives the lives, shared with the next levels.
+     * @param score the score, shared with the next levels.
+     * @return the level's result.
+     */
+    public LevelResult runLevel(LevelInformation levelInfo, KeyboardScript script, Counter lives, Counter score) {
+        ScriptedKeyboard keyboard = new ScriptedKeyboard();
+        HeadlessAnimationRunner runner = new HeadlessAnimationRunner(this.stepsPerSecond, this.maxStepsPerLevel);
+        HitCountingLevel counted = new HitCountingLevel(levelInfo);
+        GameLevel level = new GameLevel(counted, keyboard, runner, lives, score);
+        runner.setBeforeStep(() -> script.update(level, keyboard, runner.getSteps()));
+
+        int startLives = lives.getValue();
+        int startScore = score.getValue();
+        level.initialize();
+        while (lives.getValue() > 0 && level.getRemainingBlocks().getValue() > 0 && !runner.isOutOfSteps()) {
+            level.playOneTurn();
+        }
+
+        int remainingBlocks = level.getRemainingBlocks().getValue();
+        return new LevelResult(levelInfo.levelName(), remainingBlocks == 0, runner.isOutOfSteps(),
+                runner.getSteps(), (double) runner.getSteps() / this.stepsPerSecond,
+                startLives - lives.getValue(), score.getValue() - startScore, remainingBlocks,
+                counted.getHits());
+    }
+}
@@ -0,0 +1,97 @@
+package game.headless;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import game.hitListeners.HitListener;
+import game.levels.LevelInformation;
+import game.objects.Block;
+import game.objects.ball.Ball;
+import game.objects.ball.Velocity;
+import game.objects.sprite.Sprite;
+
+/**
+ * @author Yuval Ezra
+ * A LevelInformation decorator that counts how many times each of the
+ * level's Blocks is hit. Blocks are identified by their place in the
+ * level's blocks() list, so counts of different games can be compared.
+ */
+public class HitCountingLevel implements LevelInformation, HitListener {
+
+    private LevelInformation level;
+    private Map<Block, Integer> indices;
+    private int[] hits;
+
+    /**
+     * A constructor for a HitCountingLevel.
+     * @param level the level whose Blocks' hits are counted.
+     */
+    public HitCountingLevel(LevelInformation level) {
+        this.level = level;
+        this.indices = new IdentityHashMap<>();
+        this.hits = new int[0];
+    }
+
+    /**
+     * @return the number of hits of each Block, by its place in blocks().
+     */
+    public int[] getHits() {
+        return this.hits.clone();
+    }
+
+    @Override
+    public void hitEvent(Block beingHit, Ball hitter) {
+        Integer i = this.indices.get(beingHit);
+        if (i != null) {
+            this.hits[i]++;
+        }
+    }
+
+    @Override
+    public int numberOfBalls() {
+        return this.level.numberOfBalls();
+    }
+
+    @Override
+    public List<Velocity> initialBallVelocities() {
+        return this.level.initialBallVelocities();
+    }
+
+    @Override
+    public int paddleSpeed() {
+        return this.level.paddleSpeed();
+    }
+
+    @Override
+    public int paddleWidth() {
+        return this.level.paddleWidth();
+    }
+
+    @Override
+    public String levelName() {
+        return this.level.levelName();
+    }
+
+    @Override
+    public Sprite getBackground() {
+        return this.level.getBackground();
+    }
+
+    @Override
+    public List<Block> blocks() {
+        List<Block> blocks = this.level.blocks();
+        this.indices.clear();
+        this.hits = new int[blocks.size()];
+        for (int i = 0; i < blocks.size(); i++) {
+            blocks.get(i).addHitListener(this);
+            this.indices.put(blocks.get(i), i);
+        }
+        return blocks;
+    }
+
+    @Override
+    public int numberOfBlocksToRemove() {
+        return this.level.numberOfBlocksToRemove();
+    }
+}
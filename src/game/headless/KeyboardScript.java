@@ -0,0 +1,19 @@
+package game.headless;
+
+import game.levels.GameLevel;
+
+/**
+ * @author Yuval Ezra
+ * A script that plays a GameLevel instead of a user, by pressing and
+ * releasing the keys of a ScriptedKeyboard before every step of it.
+ */
+public interface KeyboardScript {
+
+    /**
+     * Presses the keys for the next step of 'level'.
+     * @param level the GameLevel being played.
+     * @param keyboard the keyboard 'level' reads.
+     * @param step the number of steps simulated so far.
+     */
+    void update(GameLevel level, ScriptedKeyboard keyboard, long step);
+}
@@ -0,0 +1,115 @@
+package game.headless;
+
+/**
+ * @author Yuval Ezra
+ * The outcome of a level that was played by a HeadlessEngine.
+ */
+public class LevelResult {
+
+    private String levelName;
+    private boolean cleared;
+    private boolean outOfSteps;
+    private long steps;
+    private double seconds;
+    private int livesLost;
+    private int scoreGained;
+    private int remainingBlocks;
+    private int[] blockHits;
+
+    /**
+     * A constructor for a LevelResult.
+     * @param levelName the level's name.
+     * @param cleared whether all of the level's Blocks were removed.
+     * @param outOfSteps whether the level was stopped after the maximal number of steps.
+     * @param steps the number of steps the level was played for.
+     * @param seconds the simulated time the level was played for, in seconds.
+     * @param livesLost the number of lives lost in the level.
+     * @param scoreGained the score gained in the level.
+     * @param remainingBlocks the number of Blocks left when the level ended.
+     * @param blockHits the number of hits of each of the level's Blocks.
+     */
+    public LevelResult(String levelName, boolean cleared, boolean outOfSteps, long steps, double seconds,
+                       int livesLost, int scoreGained, int remainingBlocks, int[] blockHits) {
+        this.levelName = levelName;
+        this.cleared = cleared;
+        this.outOfSteps = outOfSteps;
+        this.steps = steps;
+        this.seconds = seconds;
+        this.livesLost = livesLost;
+        this.scoreGained = scoreGained;
+        this.remainingBlocks = remainingBlocks;
+        this.blockHits = blockHits;
+    }
+
+    /**
+     * @return the level's name.
+     */
+    public String getLevelName() {
+        return this.levelName;
+    }
+
+    /**
+     * @return whether all of the level's Blocks were removed.
+     */
+    public boolean isCleared() {
+        return this.cleared;
+    }
+
+    /**
+     * @return whether the level was stopped after the maximal number of steps.
+     */
+    public boolean isOutOfSteps() {
+        return this.outOfSteps;
+    }
+
+    /**
+     * @return the number of steps the level was played for.
+     */
+    public long getSteps() {
+        return this.steps;
+    }
+
+    /**
+     * @return the simulated time the level was played for, in seconds.
+     */
+    public double getSeconds() {
+        return this.seconds;
+    }
+
+    /**
+     * @return the number of lives lost in the level.
+     */
+    public int getLivesLost() {
+        return this.livesLost;
+    }
+
+    /**
+     * @return the score gained in the level.
+     */
+    public int getScoreGained() {
+        return this.scoreGained;
+    }
+
+    /**
+     * @return the number of Blocks left when the level ended.
+     */
+    public int getRemainingBlocks() {
+        return this.remainingBlocks;
+    }
+
+    /**
+     * @return the number of hits of each of the level's Blocks, by their
+     * place in the level's blocks() list.
+     */
+    public int[] getBlockHits() {
+        return this.blockHits.clone();
+    }
+
+    @Override
+    public String toString() {
+        return this.levelName + ": " + (this.cleared ? "cleared" : "not cleared")
+                + (this.outOfSteps ? " (out of steps)" : "")
+                + " in " + this.seconds + "s, lives lost " + this.livesLost
+                + ", score " + this.scoreGained + ", blocks left " + this.remainingBlocks;
+    }
+}
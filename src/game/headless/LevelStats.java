@@ -0,0 +1,157 @@
+package game.headless;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Yuval Ezra
+ * Statistics of many games of the same level.
+ */
+public class LevelStats {
+
+    private String levelName;
+    private int runs;
+    private int clears;
+    private int outOfSteps;
+    private long livesLost;
+    private List<Double> clearTimes;
+    private List<Integer> scores;
+    private long[] blockHits;
+
+    /**
+     * A constructor for LevelStats, of no games.
+     * @param levelName the level's name.
+     */
+    public LevelStats(String levelName) {
+        this.levelName = levelName;
+        this.runs = 0;
+        this.clears = 0;
+        this.outOfSteps = 0;
+        this.livesLost = 0;
+        this.clearTimes = new ArrayList<>();
+        this.scores = new ArrayList<>();
+        this.blockHits = new long[0];
+    }
+
+    /**
+     * Adds a game's result to the statistics.
+     * @param result the result of a game of this level.
+     */
+    public void add(LevelResult result) {
+        this.runs++;
+        if (result.isCleared()) {
+            this.clears++;
+            this.clearTimes.add(result.getSeconds());
+        }
+        if (result.isOutOfSteps()) {
+            this.outOfSteps++;
+        }
+        this.livesLost += result.getLivesLost();
+        this.scores.add(result.getScoreGained());
+
+        int[] hits = result.getBlockHits();
+        if (hits.length > this.blockHits.length) {
+            long[] grown = new long[hits.length];
+            System.arraycopy(this.blockHits, 0, grown, 0, this.blockHits.length);
+            this.blockHits = grown;
+        }
+        for (int i = 0; i < hits.length; i++) {
+            this.blockHits[i] += hits[i];
+        }
+    }
+
+    /**
+     * @return the level's name.
+     */
+    public String getLevelName() {
+        return this.levelName;
+    }
+
+    /**
+     * @return the number of games.
+     */
+    public int getRuns() {
+        return this.runs;
+    }
+
+    /**
+     * @return the number of games in which the level was cleared.
+     */
+    public int getClears() {
+        return this.clears;
+    }
+
+    /**
+     * @return the number of games that were stopped after the maximal number of steps.
+     */
+    public int getOutOfSteps() {
+        return this.outOfSteps;
+    }
+
+    /**
+     * @return the average number of lives lost in a game.
+     */
+    public double getMeanLivesLost() {
+        return this.runs == 0 ? 0 : (double) this.livesLost / this.runs;
+    }
+
+    /**
+     * @param p a percentile, between 0 and 100.
+     * @return the p-th percentile of the time it took to clear the level, in
+     * seconds, or NaN if it was never cleared.
+     */
+    public double getClearTimePercentile(double p) {
+        List<Double> sorted = new ArrayList<>(this.clearTimes);
+        Collections.sort(sorted);
+        return percentile(sorted, p, Double.NaN);
+    }
+
+    /**
+     * @param p a percentile, between 0 and 100.
+     * @return the p-th percentile of the score gained in a game, or 0 if
+     * there were no games.
+     */
+    public double getScorePercentile(double p) {
+        List<Integer> sorted = new ArrayList<>(this.scores);
+        Collections.sort(sorted);
+        return percentile(sorted, p, 0);
+    }
+
+    /**
+     * @return the average score gained in a game.
+     */
+    public double getMeanScore() {
+        long sum = 0;
+        for (int s : this.scores) {
+            sum += s;
+        }
+        return this.runs == 0 ? 0 : (double) sum / this.runs;
+    }
+
+    /**
+     * @return the average number of hits of each of the level's Blocks in a game.
+     */
+    public double[] getMeanBlockHits() {
+        double[] mean = new double[this.blockHits.length];
+        for (int i = 0; i < mean.length; i++) {
+            mean[i] = (double) this.blockHits[i] / this.runs;
+        }
+        return mean;
+    }
+
+    /**
+     * Finds the p-th percentile of a sorted list, by the nearest-rank method.
+     * @param sorted a sorted list.
+     * @param p a percentile, between 0 and 100.
+     * @param empty what to return if the list is empty.
+     * @return the p-th percentile of 'sorted'.
+     */
+    private static double percentile(List<? extends Number> sorted, double p, double empty) {
+        if (sorted.isEmpty()) {
+            return empty;
+        }
+        int rank = (int) Math.ceil(p / 100 * sorted.size());
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, rank - 1))).doubleValue();
+    }
+}
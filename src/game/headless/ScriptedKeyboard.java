@@ -0,0 +1,51 @@
+package game.headless;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import biuoop.KeyboardSensor;
+
+/**
+ * @author Yuval Ezra
+ * A KeyboardSensor whose keys are pressed and released by code rather than
+ * by a user, for running the game without a window.
+ */
+public class ScriptedKeyboard implements KeyboardSensor {
+
+    private Set<String> pressed;
+
+    /**
+     * A constructor for a ScriptedKeyboard, with no keys pressed.
+     */
+    public ScriptedKeyboard() {
+        this.pressed = new HashSet<>();
+    }
+
+    /**
+     * Presses 'key' until it's released.
+     * @param key the key to press.
+     */
+    public void press(String key) {
+        this.pressed.add(key);
+    }
+
+    /**
+     * Releases 'key'.
+     * @param key the key to release.
+     */
+    public void release(String key) {
+        this.pressed.remove(key);
+    }
+
+    /**
+     * Releases all the keys.
+     */
+    public void releaseAll() {
+        this.pressed.clear();
+    }
+
+    @Override
+    public boolean isPressed(String key) {
+        return this.pressed.contains(key);
+    }
+}
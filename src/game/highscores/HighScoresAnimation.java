@@ -10,14 +10,31 @@ import game.animation.Animation;
  * A high-score animation
  */
 public class HighScoresAnimation implements Animation {
+
+    // how often to check if another game changed the scores' file, in seconds
+    private static final double REFRESH_INTERVAL = 1;
+
     private HighScoresTable scores;
+    private String title;
+    private double sinceRefresh;
 
     /**
      * A constructor for HighScoresAnimation.
      * @param scores the scores to show.
      */
     public HighScoresAnimation(HighScoresTable scores) {
+        this(scores, "HIGH SCORES ");
+    }
+
+    /**
+     * A constructor for HighScoresAnimation.
+     * @param scores the scores to show.
+     * @param title the title to show above them.
+     */
+    public HighScoresAnimation(HighScoresTable scores, String title) {
         this.scores = scores;
+        this.title = title;
+        this.sinceRefresh = REFRESH_INTERVAL;
     }
 
     /**
@@ -27,6 +44,13 @@ public class HighScoresAnimation implements Animation {
      */
     public void doOneFrame(DrawSurface d, double dt) {
 
+       // showing scores other games running on this machine added
+       this.sinceRefresh += dt;
+       if (this.sinceRefresh >= REFRESH_INTERVAL) {
+           this.sinceRefresh = 0;
+           this.scores.refresh();
+       }
+
        // black background
        d.setColor(Color.BLACK);
        d.fillRectangle(0, 0, d.getWidth(), d.getHeight());
@@ -37,9 +61,11 @@ public class HighScoresAnimation implements Animation {
        // final score
        int startY = d.getHeight() / 4;
        int startX = d.getWidth() / 4 + 30;
-       d.drawText(startX, startY, "HIGH SCORES ", 40);
+       d.drawText(startX, startY, this.title, 40);
 
-       for (ScoreInfo score: this.scores.getHighScores()) {
+       // only as many scores as fit on the screen
+       int rows = Math.max(0, (d.getHeight() - startY) / 25 - 1);
+       for (ScoreInfo score: this.scores.getHighScores(0, rows)) {
           startY += 25;
           d.drawText(startX, startY, score.getName() + " " + score.getScore(), 20);
        }
@@ -1,25 +1,56 @@
 package game.highscores;
 
+import java.io.Closeable;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author Yuval Ezra
- * A highScores-table.
+ * A highScores-table. It's saved in a ScoreLog: saving appends the scores
+ * added since the table was loaded, and loading replays the log. Tables
+ * saved by older versions, with Java serialization, are moved to a log when
+ * they're loaded. The scores are kept in a Leaderboard, so a table can hold
+ * any number of them - every game ever played, even - and still add them and
+ * rank them quickly. A Table can be added to on one thread while it's saved
+ * on another (see HighScoresWriter), and several processes can share a File.
  */
 public class HighScoresTable implements Serializable {
 
    private static final long serialVersionUID = -7962091275772613394L;
+
+   // the log is rewritten with just the table when it has this many times more records
+   private static final int COMPACT_RATIO = 4;
+
+   // serialized as it was when the scores were a LinkedList, so old files can be read
+   private static final ObjectStreamField[] serialPersistentFields = {
+       new ObjectStreamField("size", int.class), new ObjectStreamField("scores", List.class)};
+
    private int size;
-   private List<ScoreInfo> scores;
+   private Leaderboard scores;
+
+   // the log this table was last loaded from or saved to, and what was added since
+   private transient File file;
+   private transient ScoreLog log;
+   private transient List<ScoreInfo> unsaved;
+
+   // held while the Table is saved or loaded, before the Table itself
+   private transient ReentrantLock fileLock;
 
    /**
     * A constructor for HighScoresTable.
@@ -27,18 +58,31 @@ public class HighScoresTable implements Serializable {
     */
    public HighScoresTable(int size) {
        this.size = size;
-       this.scores = new LinkedList<ScoreInfo>();
+       this.scores = new Leaderboard();
+       this.unsaved = new ArrayList<>();
+       this.fileLock = new ReentrantLock();
    }
 
    /**
     * Add 'score' to this Table.
     * @param score the score to be added to this Table.
     */
-   public void add(ScoreInfo score) {
+   public synchronized void add(ScoreInfo score) {
+       if (this.insert(score)) {
+           this.unsaved.add(score);
+       }
+   }
+
+   /**
+    * Adds 'score' to this Table, if it's high enough.
+    * @param score the score to be added to this Table.
+    * @return true if it was added.
+    */
+   private boolean insert(ScoreInfo score) {
        int rank = this.getRank(score.getScore());
 
        if (rank > this.size()) {
-           return;
+           return false;
        }
 
        // if full but need to add
@@ -46,13 +90,14 @@ public class HighScoresTable implements Serializable {
            this.scores.remove(this.scores.size() - 1);
        }
 
-       this.scores.add(rank - 1, score);
+       this.scores.insert(score);
+       return true;
    }
 
    /**
     * @return this Table's size.
     */
-   public int size() {
+   public synchronized int size() {
        return this.size;
    }
 
@@ -60,15 +105,25 @@ public class HighScoresTable implements Serializable {
     * sets this Table's size to 'size'.
     * @param s this Table's new size.
     */
-   public void setSize(int s) {
+   public synchronized void setSize(int s) {
        this.size = s;
    }
 
    /**
-    * @return the current high-scores.
+    * @return a copy of the current high-scores, from the highest.
+    */
+   public synchronized List<ScoreInfo> getHighScores() {
+       return new ArrayList<>(this.scores);
+   }
+
+   /**
+    * @param from the rank of the first score, counting from 0.
+    * @param count the most scores to return.
+    * @return a page of the current high-scores: the ones from rank 'from'
+    * on, at most 'count' of them.
     */
-   public List<ScoreInfo> getHighScores() {
-       return this.scores;
+   public synchronized List<ScoreInfo> getHighScores(int from, int count) {
+       return this.scores.page(from, count);
    }
 
    /**
@@ -80,22 +135,27 @@ public class HighScoresTable implements Serializable {
     * @param score the score to be added to this HighScoresTable.
     * @return this scores 'rank' in the Table.
     */
-   public int getRank(int score) {
-       for (int i = 0; i < this.scores.size(); i++) {
-           if (this.scores.get(i).getScore() < score) {
-               return i + 1;
-           }
-       }
+   public synchronized int getRank(int score) {
 
-       // the end of the list
-       return this.scores.size() + 1;
+       // right after all the scores that are at least as high
+       return this.scores.countAtLeast(score) + 1;
    }
 
    /**
     * Clears this Table.
     */
    public void clear() {
-       this.scores.clear();
+       this.fileLock.lock();
+       try {
+           synchronized (this) {
+               this.scores.clear();
+               this.unsaved.clear();
+               this.file = null;
+               this.log = null;
+           }
+       } finally {
+           this.fileLock.unlock();
+       }
    }
 
    /**
@@ -104,67 +164,238 @@ public class HighScoresTable implements Serializable {
     * @throws IOException if there was a problem reading fomr the file.
     */
    public void load(File filename) throws IOException {
-
-       FileInputStream in = null;
+       this.fileLock.lock();
        try {
-           in = new FileInputStream(filename);
-           ObjectInputStream reader = new ObjectInputStream(in);
-           HighScoresTable t = null;
+           Closeable lock = ScoreLog.lock(filename);
            try {
-               t = (HighScoresTable) reader.readObject();
-           } catch (ClassNotFoundException e) {
-               // TODO Auto-generated catch block
-               e.printStackTrace();
+               synchronized (this) {
+                   this.clear();
+                   this.file = filename;
+                   if (!filename.exists()) {
+                       return;
+                   }
+                   if (!ScoreLog.isLog(filename)) {
+                       this.migrate(filename);
+                       return;
+                   }
+                   try {
+                       this.replay(ScoreLog.read(filename));
+                   } catch (IOException e) {
+                       System.out.println("Failed to load table.");
+                   }
+               }
            } finally {
-               reader.close();
+               lock.close();
            }
+       } finally {
+           this.fileLock.unlock();
+       }
+   }
 
-           this.clear();
-           if (t != null) {
-               this.scores.addAll(t.getHighScores());
+   /**
+    * Loads the Table again if another process changed its File since it
+    * was loaded or saved. Only the File's attributes are checked, unless it
+    * changed. Scores added but not saved yet are kept. It never waits: if
+    * the Table or its File is being saved or loaded, it's left for the next
+    * refresh.
+    * @return true if the Table was loaded again.
+    */
+   public boolean refresh() {
+       File f;
+       ScoreLog l;
+       synchronized (this) {
+           f = this.file;
+           l = this.log;
+       }
+       if (f == null || (l == null ? !f.isFile() : l.isCurrent())) {
+           return false;
+       }
+       if (!this.fileLock.tryLock()) {
+           return false;
+       }
+       try {
+           Closeable lock = ScoreLog.tryLock(f);
+           if (lock == null) {
+               return false;
            }
-           if (this.size < this.scores.size()) {
-               this.size = this.scores.size();
+           try {
+               if (!ScoreLog.isLog(f)) {
+                   return false;
+               }
+               ScoreLog read = ScoreLog.read(f);
+               synchronized (this) {
+                   if (!f.equals(this.file)) {
+                       return false;
+                   }
+                   this.replay(read);
+               }
+               return true;
+           } finally {
+               lock.close();
            }
+       } catch (IOException e) {
+           System.out.println("Failed to load table.");
+           return false;
+       } finally {
+           this.fileLock.unlock();
+       }
+   }
+
+   /**
+    * Rebuilds the Table from a log, then adds the scores that weren't saved
+    * yet on top of it, in case they're still high enough.
+    * @param l the log.
+    */
+   private void replay(ScoreLog l) {
+       List<ScoreInfo> pending = this.unsaved;
+       this.unsaved = new ArrayList<>();
+       this.scores.clear();
+
+       // replaying the scores in the order they were added
+       for (ScoreInfo s : l.getRecords()) {
+           this.insert(s);
+       }
+       for (ScoreInfo s : pending) {
+           this.add(s);
+       }
+       this.log = l;
+   }
+
+   /**
+    * Loads Table data from a File written by Java serialization, and
+    * rewrites the File as a ScoreLog.
+    * @param filename the File to load this Table's data from.
+    * @throws IOException if the File couldn't be rewritten.
+    */
+   private void migrate(File filename) throws IOException {
+       HighScoresTable t = null;
+       try (InputStream in = new FileInputStream(filename)) {
+           t = (HighScoresTable) new TableInputStream(in).readObject();
        } catch (EOFException e) {
 
            // file is clear
-           this.save(filename);
-       } catch (IOException e) {
+           t = null;
+       } catch (IOException | ClassNotFoundException | ClassCastException e) {
            System.out.println("Failed to load table.");
-       } finally {
-           if (in != null) {
-               in.close();
+           return;
+       }
+
+       if (t != null) {
+           for (ScoreInfo s : t.getHighScores()) {
+               this.scores.insert(s);
            }
        }
+       if (this.size < this.scores.size()) {
+           this.size = this.scores.size();
+       }
+       this.log = ScoreLog.write(filename, this.scores);
    }
 
    /**
-    * Saves Table data to the specified File.
+    * Saves Table data to the specified File. The File is locked while it's
+    * saved, so processes sharing it take turns. If another process changed
+    * the File since this Table last read it, the Table is first merged with
+    * the File: the File's scores are read again, and the ones added here
+    * since are added on top. Then only the scores added here are appended
+    * to the File. When the File has grown too long, or isn't a log yet, it's
+    * replaced whole, and only once the new one is completely on the disk.
     * @param filename the file to save this Table in.
     * @throws IOException if the File failed to open.
     */
    public void save(File filename) throws IOException {
-       FileOutputStream out = null;
+       this.fileLock.lock();
        try {
-           out = new FileOutputStream(filename);
-           ObjectOutputStream writer = new ObjectOutputStream(out);
-           writer.writeObject(this);
-           writer.close();
+           Closeable lock = ScoreLog.lock(filename);
+           try {
+               ScoreLog l;
+               synchronized (this) {
+                   l = this.log;
+               }
+               if (l == null || !l.getFile().equals(filename) || !l.isCurrent()) {
+                   l = filename.exists() && ScoreLog.isLog(filename) ? ScoreLog.read(filename) : null;
+               }
+
+               // taking what to write, so the Table can be added to while it's written
+               List<ScoreInfo> added;
+               List<ScoreInfo> all = null;
+               synchronized (this) {
+                   if (l != null && l != this.log) {
+                       this.replay(l);
+                   }
+                   this.file = filename;
+                   added = new ArrayList<>(this.unsaved);
+                   this.unsaved.clear();
+                   if (l == null || l.getFormat() != ScoreLog.VERSION
+                           || l.getRecords().size() + added.size() > COMPACT_RATIO * Math.max(1, this.size)) {
+
+                       // the scores that fell off the table are dropped, and older logs updated
+                       all = new ArrayList<>(this.scores);
+                   }
+               }
+               try {
+                   if (all == null) {
+                       l.append(added);
+                   } else {
+                       l = ScoreLog.write(filename, all);
+                   }
+                   synchronized (this) {
+                       this.log = l;
+                   }
+               } catch (IOException e) {
+                   synchronized (this) {
+                       this.unsaved.addAll(0, added);
+                   }
+                   throw e;
+               }
+           } finally {
+               lock.close();
+           }
        } catch (IOException e) {
            System.out.println("Failed saving in the file.");
        } finally {
-           if (out != null) {
-               out.close();
-           }
+           this.fileLock.unlock();
        }
    }
 
    @Override
-    public String toString() {
+    public synchronized String toString() {
         return this.scores.toString();
     }
 
+   /**
+    * Reads a Table written by Java serialization.
+    * @param in the stream to read the Table from.
+    * @throws IOException if the Table couldn't be read.
+    * @throws ClassNotFoundException if a class in the stream is unknown.
+    */
+   private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+       ObjectInputStream.GetField fields = in.readFields();
+       this.size = fields.get("size", 0);
+       this.scores = new Leaderboard();
+       this.unsaved = new ArrayList<>();
+       this.fileLock = new ReentrantLock();
+       List<?> list = (List<?>) fields.get("scores", null);
+       if (list != null) {
+           for (Object s : list) {
+               this.scores.insert((ScoreInfo) s);
+           }
+       }
+   }
+
+   /**
+    * Writes this Table by Java serialization, the way older versions did.
+    * @param out the stream to write the Table to.
+    * @throws IOException if the Table couldn't be written.
+    */
+   private void writeObject(ObjectOutputStream out) throws IOException {
+       ObjectOutputStream.PutField fields = out.putFields();
+       fields.put("size", this.size);
+       synchronized (this) {
+           fields.put("scores", new LinkedList<>(this.scores));
+       }
+       out.writeFields();
+   }
+
    /**
     * Loads a Table from File, and returns it. If the File does not exist
     * or there was a problem with reading it, returns an empty table.
@@ -181,4 +412,31 @@ public class HighScoresTable implements Serializable {
        }
        return scores;
    }
-}
\ No newline at end of file
+
+   /**
+    * @author Yuval Ezra
+    * An ObjectInputStream that reads only the classes a serialized Table is
+    * made of, so a file made to look like one can't create other objects.
+    */
+   private static class TableInputStream extends ObjectInputStream {
+       private static final Set<String> CLASSES = new HashSet<>(Arrays.asList(
+               HighScoresTable.class.getName(), ScoreInfo.class.getName(), LinkedList.class.getName()));
+
+       /**
+        * A constructor for TableInputStream.
+        * @param in the stream to read the Table from.
+        * @throws IOException if the stream's header couldn't be read.
+        */
+       TableInputStream(InputStream in) throws IOException {
+           super(in);
+       }
+
+       @Override
+       protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+           if (!CLASSES.contains(desc.getName())) {
+               throw new InvalidClassException(desc.getName(), "not part of a high-scores table");
+           }
+           return super.resolveClass(desc);
+       }
+   }
+}
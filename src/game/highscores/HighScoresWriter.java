@@ -0,0 +1,167 @@
+package game.highscores;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author Yuval Ezra.
+ * Saves HighScoresTables (and PartitionedHighScores) on a thread of its own,
+ * so the game goes on while they're written to the disk. Saves of a file
+ * asked for while it's waiting to be saved are done as one. Files still
+ * waiting when the program exits are saved before it does.
+ */
+public class HighScoresWriter {
+
+    // how long a save waits for more saves to join it, in milliseconds
+    private static final long COALESCE_MILLIS = 100;
+
+    // how long the program waits for the saves when it exits, in milliseconds
+    private static final long EXIT_TIMEOUT_MILLIS = 5000;
+
+    private static HighScoresWriter instance = null;
+
+    // file -> how to save it
+    private Map<File, Save> pending;
+    private boolean writing;
+    private Thread thread;
+
+    /**
+     * A constructor for HighScoresWriter.
+     */
+    public HighScoresWriter() {
+        this.pending = new LinkedHashMap<>();
+        this.writing = false;
+        this.thread = new Thread(this::run, "highscores-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (!this.flush(EXIT_TIMEOUT_MILLIS)) {
+                System.out.println("Gave up waiting for the high scores to be saved.");
+            }
+        }, "highscores-flush"));
+    }
+
+    /**
+     * @return the HighScoresWriter the game saves its tables with.
+     */
+    public static synchronized HighScoresWriter getInstance() {
+        if (instance == null) {
+            instance = new HighScoresWriter();
+        }
+        return instance;
+    }
+
+    /**
+     * Asks for a table to be saved, and returns right away.
+     * @param table the table to save.
+     * @param file the file to save it in.
+     */
+    public synchronized void save(HighScoresTable table, File file) {
+        this.pending.put(file, () -> table.save(file));
+        this.notifyAll();
+    }
+
+    /**
+     * Asks for partitioned high-scores to be saved, and returns right away.
+     * @param partitions the partitions to save.
+     */
+    public synchronized void save(PartitionedHighScores partitions) {
+        this.pending.put(partitions.getFile(), partitions::save);
+        this.notifyAll();
+    }
+
+    /**
+     * Waits until all the tables asked to be saved so far are saved.
+     */
+    public void flush() {
+        this.flush(0);
+    }
+
+    /**
+     * Waits until all the tables asked to be saved so far are saved, or
+     * until a timeout passes.
+     * @param timeout the longest time to wait, in milliseconds, or 0 to wait
+     * for as long as it takes.
+     * @return true if the tables were saved.
+     */
+    public synchronized boolean flush(long timeout) {
+        long deadline = System.currentTimeMillis() + timeout;
+        boolean interrupted = false;
+        while (!this.pending.isEmpty() || this.writing) {
+            long left = deadline - System.currentTimeMillis();
+            if (timeout > 0 && left <= 0) {
+                break;
+            }
+            try {
+                this.wait(timeout > 0 ? left : 0);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return this.pending.isEmpty() && !this.writing;
+    }
+
+    /**
+     * Saves the tables asked to be saved, as they're asked for. An interrupt
+     * doesn't stop it - the saves asked for would be lost.
+     */
+    private void run() {
+        while (true) {
+            synchronized (this) {
+                while (this.pending.isEmpty()) {
+                    try {
+                        this.wait();
+                    } catch (InterruptedException e) {
+                        continue;
+                    }
+                }
+                this.writing = true;
+            }
+
+            try {
+                // letting more saves come in, so a burst of them is written once
+                try {
+                    Thread.sleep(COALESCE_MILLIS);
+                } catch (InterruptedException e) {
+                    // saving what came in so far, right away
+                }
+                Map<File, Save> batch;
+                synchronized (this) {
+                    batch = new LinkedHashMap<>(this.pending);
+                    this.pending.clear();
+                }
+
+                for (Map.Entry<File, Save> e : batch.entrySet()) {
+                    try {
+                        e.getValue().save();
+                    } catch (IOException | RuntimeException ex) {
+                        System.out.println("Failed saving " + e.getKey() + ": " + ex);
+                    }
+                }
+            } finally {
+                synchronized (this) {
+                    this.writing = false;
+                    this.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * @author Yuval Ezra.
+     * A save waiting to be done.
+     */
+    private interface Save {
+
+        /**
+         * Saves.
+         * @throws IOException if the file couldn't be written.
+         */
+        void save() throws IOException;
+    }
+}
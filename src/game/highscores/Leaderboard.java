@@ -0,0 +1,232 @@
+package game.highscores;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * @author Yuval Ezra.
+ * Scores from the highest to the lowest, kept in an indexable skip list, so
+ * adding a score, removing one, finding a score's rank and finding the score
+ * at a rank all take O(log n) on average. Equal scores are kept in the order
+ * they were added.
+ */
+class Leaderboard extends AbstractList<ScoreInfo> {
+
+    private static final int MAX_LEVEL = 32;
+
+    private Node head;
+    private int levels;
+    private int size;
+    private Random random;
+
+    /**
+     * A constructor for Leaderboard.
+     */
+    Leaderboard() {
+        this.head = new Node(null, MAX_LEVEL);
+        this.levels = 1;
+        this.size = 0;
+        this.random = new Random();
+    }
+
+    /**
+     * @param score a score.
+     * @return the number of scores that are at least 'score'.
+     */
+    int countAtLeast(int score) {
+        Node x = this.head;
+        int count = 0;
+        for (int i = this.levels - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].value.getScore() >= score) {
+                count += x.width[i];
+                x = x.next[i];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Adds a score after all the scores that are at least as high.
+     * @param score the score to add.
+     * @return the index it was added at.
+     */
+    int insert(ScoreInfo score) {
+        Node[] update = new Node[MAX_LEVEL];
+        int[] before = new int[MAX_LEVEL];
+        Node x = this.head;
+        int count = 0;
+        for (int i = this.levels - 1; i >= 0; i--) {
+            while (x.next[i] != null && x.next[i].value.getScore() >= score.getScore()) {
+                count += x.width[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+            before[i] = count;
+        }
+
+        int level = this.randomLevel();
+        for (int i = this.levels; i < level; i++) {
+            update[i] = this.head;
+            before[i] = 0;
+            this.head.width[i] = this.size;
+        }
+        this.levels = Math.max(this.levels, level);
+
+        // a width is the number of steps on the bottom level to the next node,
+        // or to the end of the list after the last node
+        Node n = new Node(score, level);
+        for (int i = 0; i < level; i++) {
+            n.next[i] = update[i].next[i];
+            update[i].next[i] = n;
+            n.width[i] = update[i].width[i] - (count - before[i]);
+            update[i].width[i] = count - before[i] + 1;
+        }
+        for (int i = level; i < this.levels; i++) {
+            update[i].width[i]++;
+        }
+        this.size++;
+        return count;
+    }
+
+    @Override
+    public ScoreInfo remove(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+        Node[] update = new Node[MAX_LEVEL];
+        Node x = this.head;
+        int count = 0;
+        for (int i = this.levels - 1; i >= 0; i--) {
+            while (x.next[i] != null && count + x.width[i] <= index) {
+                count += x.width[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        Node target = update[0].next[0];
+        for (int i = 0; i < this.levels; i++) {
+            if (update[i].next[i] == target) {
+                update[i].width[i] += target.width[i] - 1;
+                update[i].next[i] = target.next[i];
+            } else {
+                update[i].width[i]--;
+            }
+        }
+        while (this.levels > 1 && this.head.next[this.levels - 1] == null) {
+            this.levels--;
+        }
+        this.size--;
+        return target.value;
+    }
+
+    @Override
+    public ScoreInfo get(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+        return this.nodeAt(index).value;
+    }
+
+    /**
+     * @param from the index of the first score.
+     * @param count the most scores to return.
+     * @return the scores from index 'from' on, at most 'count' of them.
+     */
+    List<ScoreInfo> page(int from, int count) {
+        List<ScoreInfo> page = new ArrayList<>();
+        if (from < 0 || from >= this.size) {
+            return page;
+        }
+        for (Node x = this.nodeAt(from); x != null && page.size() < count; x = x.next[0]) {
+            page.add(x.value);
+        }
+        return page;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        this.head = new Node(null, MAX_LEVEL);
+        this.levels = 1;
+        this.size = 0;
+    }
+
+    @Override
+    public Iterator<ScoreInfo> iterator() {
+        return new Iterator<ScoreInfo>() {
+            private Node next = Leaderboard.this.head.next[0];
+
+            @Override
+            public boolean hasNext() {
+                return this.next != null;
+            }
+
+            @Override
+            public ScoreInfo next() {
+                if (this.next == null) {
+                    throw new NoSuchElementException();
+                }
+                ScoreInfo value = this.next.value;
+                this.next = this.next.next[0];
+                return value;
+            }
+        };
+    }
+
+    /**
+     * @param index an index smaller than the size.
+     * @return the node at 'index'.
+     */
+    private Node nodeAt(int index) {
+        Node x = this.head;
+        int count = 0;
+        for (int i = this.levels - 1; i >= 0; i--) {
+            while (x.next[i] != null && count + x.width[i] <= index + 1) {
+                count += x.width[i];
+                x = x.next[i];
+            }
+        }
+        return x;
+    }
+
+    /**
+     * @return a level for a new node: 1, then one more with a chance of 1/2 each time.
+     */
+    private int randomLevel() {
+        int level = 1;
+        while (level < MAX_LEVEL && this.random.nextBoolean()) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * @author Yuval Ezra.
+     * A score in the skip list, and its links on each of its levels.
+     */
+    private static class Node {
+        private ScoreInfo value;
+        private Node[] next;
+        private int[] width;
+
+        /**
+         * A constructor for Node.
+         * @param value the score.
+         * @param level the number of levels the node is on.
+         */
+        Node(ScoreInfo value, int level) {
+            this.value = value;
+            this.next = new Node[level];
+            this.width = new int[level];
+        }
+    }
+}
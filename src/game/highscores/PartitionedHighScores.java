@@ -0,0 +1,477 @@
+package game.highscores;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import game.misc.AtomicFiles;
+
+/**
+ * @author Yuval Ezra.
+ * Many high-scores tables (partitions) in a single file: one for every level
+ * set, and one for every level of every set. The file starts with a header
+ * (a magic number, a version, a generation that changes whenever the file is
+ * written, the number of partitions and the index's length) and an index of
+ * the partitions (every partition's key, offset, length and number of
+ * scores), followed by
+ * the partitions' scores, from the highest, as ScoreLog records. The index is
+ * kept in a map, so a partition is found in O(1) and read on its own, without
+ * the others; it's read again only when the generation changes. The file
+ * isn't opened at all while its attributes stay the same.
+ * The file is shared between processes the same way a ScoreLog is: it's
+ * locked while it's written, and the partitions are merged with the file's
+ * when they're saved.
+ */
+public class PartitionedHighScores {
+
+    static final int MAGIC = 0x41524B49;
+    static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 * Integer.BYTES + Long.BYTES;
+
+    private File file;
+    private int partitionSize;
+
+    // the index of the file's generation 'generation', and the partitions read from it
+    private long generation;
+
+    // the file's version (see ScoreLog.version()) when it was last read
+    private Object version;
+    private Map<String, Entry> index;
+    private Map<String, List<ScoreInfo>> partitions;
+
+    // key -> the scores added since the partitions were last saved
+    private Map<String, List<ScoreInfo>> unsaved;
+    private Object fileLock;
+
+    /**
+     * A constructor for PartitionedHighScores.
+     * @param file the partitions' file.
+     * @param partitionSize the number of scores kept in each partition.
+     */
+    public PartitionedHighScores(File file, int partitionSize) {
+        this.file = file;
+        this.partitionSize = partitionSize;
+        this.generation = 0;
+        this.version = null;
+        this.index = new HashMap<>();
+        this.partitions = new HashMap<>();
+        this.unsaved = new LinkedHashMap<>();
+        this.fileLock = new Object();
+    }
+
+    /**
+     * @param levelSet a level set's key.
+     * @return the key of the level set's partition.
+     */
+    public static String levelSetKey(String levelSet) {
+        return "set:" + levelSet;
+    }
+
+    /**
+     * @param levelSet a level set's key.
+     * @param level the name of a level in the set.
+     * @return the key of the level's partition.
+     */
+    public static String levelKey(String levelSet, String level) {
+        return "level:" + levelSet + "/" + level;
+    }
+
+    /**
+     * @return the partitions' file.
+     */
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * @param key a partition's key.
+     * @return a new table of the partition's scores, including the ones added
+     * but not saved yet. Only that partition is read from the file.
+     */
+    public synchronized HighScoresTable getTable(String key) {
+        HighScoresTable table = new HighScoresTable(this.partitionSize);
+        for (ScoreInfo s : this.read(key)) {
+            table.add(s);
+        }
+        for (ScoreInfo s : this.unsaved.getOrDefault(key, new ArrayList<>())) {
+            table.add(s);
+        }
+        return table;
+    }
+
+    /**
+     * @param key a partition's key.
+     * @param score a score.
+     * @return the rank 'score' would have in the partition (see HighScoresTable.getRank()).
+     */
+    public synchronized int getRank(String key, int score) {
+        int atLeast = 0;
+        for (ScoreInfo s : this.read(key)) {
+            if (s.getScore() >= score) {
+                atLeast++;
+            }
+        }
+        for (ScoreInfo s : this.unsaved.getOrDefault(key, new ArrayList<>())) {
+            if (s.getScore() >= score) {
+                atLeast++;
+            }
+        }
+
+        // like a table of the partition's size would rank it
+        return Math.min(atLeast, this.partitionSize) + 1;
+    }
+
+    /**
+     * @param key a partition's key.
+     * @param score a score.
+     * @return true if 'score' is high enough to be added to the partition.
+     */
+    public synchronized boolean qualifies(String key, int score) {
+        return this.getRank(key, score) <= this.partitionSize;
+    }
+
+    /**
+     * Adds a score to a partition, if it's high enough. It's written to the
+     * file on the next save().
+     * @param key the partition's key.
+     * @param score the score.
+     */
+    public synchronized void add(String key, ScoreInfo score) {
+        if (this.qualifies(key, score.getScore())) {
+            this.unsaved.computeIfAbsent(key, k -> new ArrayList<>()).add(score);
+        }
+    }
+
+    /**
+     * @return the keys of all the partitions, in the file or added since.
+     */
+    public synchronized List<String> getKeys() {
+        this.read(null);
+        Set<String> keys = new LinkedHashSet<>(this.index.keySet());
+        keys.addAll(this.unsaved.keySet());
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * Saves the scores added since the last save. The file is locked while
+     * it's saved, and read again first, so scores other processes saved in
+     * the meantime are kept. Only the partitions that were added to are
+     * decoded; the others are copied as they are. The file is replaced
+     * whole (see AtomicFiles).
+     * @throws IOException if the file couldn't be read or written.
+     */
+    public void save() throws IOException {
+        synchronized (this.fileLock) {
+            Closeable lock = ScoreLog.lock(this.file);
+            try {
+                Map<String, List<ScoreInfo>> added;
+                synchronized (this) {
+                    added = new LinkedHashMap<>(this.unsaved);
+                    this.unsaved.clear();
+                }
+                if (added.isEmpty()) {
+                    return;
+                }
+                try {
+                    this.write(added);
+                } catch (IOException | RuntimeException e) {
+                    synchronized (this) {
+                        for (Map.Entry<String, List<ScoreInfo>> p : added.entrySet()) {
+                            this.unsaved.computeIfAbsent(p.getKey(), k -> new ArrayList<>()).addAll(0, p.getValue());
+                        }
+                    }
+                    throw e;
+                }
+            } finally {
+                lock.close();
+            }
+        }
+    }
+
+    /**
+     * Writes the file again, with scores added to some of its partitions.
+     * @param added partition key -> the scores to add to it.
+     * @throws IOException if the file couldn't be read or written.
+     */
+    private void write(Map<String, List<ScoreInfo>> added) throws IOException {
+        Map<String, ByteBuffer> old = new LinkedHashMap<>();
+        Map<String, Entry> oldIndex = new LinkedHashMap<>();
+        Map<String, List<ScoreInfo>> oldScores = new HashMap<>();
+        try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer bytes = readFully(channel, 0, (int) channel.size());
+            int count = readHeader(bytes);
+            bytes.getInt();
+            oldIndex.putAll(readIndex(bytes, count));
+            for (Map.Entry<String, Entry> p : oldIndex.entrySet()) {
+                ByteBuffer partition = bytes.duplicate();
+                partition.position(p.getValue().offset).limit(p.getValue().offset + p.getValue().length);
+                old.put(p.getKey(), partition.slice());
+            }
+            for (String key : added.keySet()) {
+                if (old.containsKey(key)) {
+                    oldScores.put(key, decode(old.get(key).duplicate(), oldIndex.get(key).count));
+                }
+            }
+        } catch (NoSuchFileException e) {
+
+            // the first save
+            old.clear();
+        } catch (IOException | RuntimeException e) {
+
+            // a file that can't be read would fail every save, so a new one is started
+            old.clear();
+            oldScores.clear();
+            this.moveAside(e);
+        }
+
+        // the partitions that were added to are merged; the others are kept as they are
+        Map<String, byte[]> blobs = new LinkedHashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (Map.Entry<String, ByteBuffer> p : old.entrySet()) {
+            byte[] blob = new byte[p.getValue().remaining()];
+            p.getValue().duplicate().get(blob);
+            blobs.put(p.getKey(), blob);
+            counts.put(p.getKey(), oldIndex.get(p.getKey()).count);
+        }
+        for (Map.Entry<String, List<ScoreInfo>> p : added.entrySet()) {
+            HighScoresTable table = new HighScoresTable(this.partitionSize);
+            for (ScoreInfo s : oldScores.getOrDefault(p.getKey(), new ArrayList<>())) {
+                table.add(s);
+            }
+            for (ScoreInfo s : p.getValue()) {
+                table.add(s);
+            }
+            ByteArrayOutputStream blob = new ByteArrayOutputStream();
+            List<ScoreInfo> scores = table.getHighScores();
+            for (ScoreInfo s : scores) {
+                blob.write(ScoreLog.encode(s));
+            }
+            blobs.put(p.getKey(), blob.toByteArray());
+            counts.put(p.getKey(), scores.size());
+        }
+
+        Map<String, byte[]> keys = new LinkedHashMap<>();
+        int indexLength = 0;
+        for (String key : blobs.keySet()) {
+            byte[] k = key.getBytes(StandardCharsets.UTF_8);
+            if (k.length > 0xFFFF) {
+                throw new IOException("Partition key too long: " + key);
+            }
+            keys.put(key, k);
+            indexLength += Short.BYTES + k.length + 3 * Integer.BYTES;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(ThreadLocalRandom.current().nextLong());
+        out.writeInt(blobs.size());
+        out.writeInt(indexLength);
+        int offset = HEADER_SIZE + indexLength;
+        for (Map.Entry<String, byte[]> p : blobs.entrySet()) {
+            out.writeShort(keys.get(p.getKey()).length);
+            out.write(keys.get(p.getKey()));
+            out.writeInt(offset);
+            out.writeInt(p.getValue().length);
+            out.writeInt(counts.get(p.getKey()));
+            offset += p.getValue().length;
+        }
+        for (byte[] blob : blobs.values()) {
+            out.write(blob);
+        }
+        AtomicFiles.replace(this.file, bytes.toByteArray());
+    }
+
+    /**
+     * Moves a file that isn't a valid partitions file (another version of
+     * it, or a corrupt one) out of the way, to the same name with ".bad"
+     * added, so it's kept but not read again.
+     * @param problem what was wrong with the file.
+     */
+    private void moveAside(Exception problem) {
+        File aside = new File(this.file.getPath() + ".bad");
+        System.out.println(this.file + " can't be read (" + problem + "), moving it to " + aside);
+        try {
+            Files.move(this.file.toPath(), aside.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.out.println("Failed moving " + this.file + ", it will be replaced: " + e);
+        }
+    }
+
+    /**
+     * Reads a partition from the file, or just the index if 'key' is null.
+     * The file isn't opened if it didn't change since it was last read (by
+     * its attributes, like ScoreLog.isCurrent()) and the partition was read
+     * then, or isn't in it. Otherwise only the header is read when the
+     * index was already read from the same generation of the file.
+     * @param key a partition's key, or null.
+     * @return the partition's scores, from the highest (empty if there's no
+     * such partition, or it couldn't be read).
+     */
+    private List<ScoreInfo> read(String key) {
+        Object v = ScoreLog.version(this.file);
+        if (v == null) {
+
+            // no file, or not yet
+            this.forget();
+            return new ArrayList<>();
+        }
+        boolean current = v.equals(this.version);
+        if (current && (key == null || !this.index.containsKey(key))) {
+            return new ArrayList<>();
+        }
+        if (current && this.partitions.containsKey(key)) {
+            return this.partitions.get(key);
+        }
+
+        try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.READ)) {
+            if (!current) {
+                ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+                int count = this.readHeader(header);
+                long g = header.getLong(2 * Integer.BYTES);
+                int indexLength = header.getInt();
+                if (g != this.generation || this.index.isEmpty()) {
+                    this.index = readIndex(readFully(channel, HEADER_SIZE, indexLength), count);
+                    this.partitions.clear();
+                    this.generation = g;
+                }
+                this.version = v;
+            }
+            if (key == null) {
+                return new ArrayList<>();
+            }
+            List<ScoreInfo> partition = this.partitions.get(key);
+            if (partition == null) {
+                Entry e = this.index.get(key);
+                partition = e == null ? new ArrayList<>() : decode(readFully(channel, e.offset, e.length), e.count);
+                this.partitions.put(key, partition);
+            }
+            return partition;
+        } catch (NoSuchFileException e) {
+            this.forget();
+            return new ArrayList<>();
+        } catch (IOException | RuntimeException e) {
+
+            // not read again until the file changes (or is replaced by the next save)
+            System.out.println("Failed to read " + this.file + ": " + e);
+            this.forget();
+            this.version = v;
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Drops the index and the partitions read from the file.
+     */
+    private void forget() {
+        this.index = new HashMap<>();
+        this.partitions.clear();
+        this.generation = 0;
+        this.version = null;
+    }
+
+    /**
+     * Reads a file's header, up to the index's length.
+     * @param bytes the file's bytes, from its start.
+     * @return the number of partitions.
+     * @throws IOException if the file isn't a partitions file.
+     */
+    private int readHeader(ByteBuffer bytes) throws IOException {
+        if (bytes.remaining() < HEADER_SIZE || bytes.getInt() != MAGIC || bytes.getInt() != VERSION) {
+            throw new IOException(this.file + " isn't a high-scores partitions file");
+        }
+        bytes.getLong();
+        return bytes.getInt();
+    }
+
+    /**
+     * @param bytes the index, from its position.
+     * @param count the number of partitions.
+     * @return partition key -> where the partition is.
+     */
+    private static Map<String, Entry> readIndex(ByteBuffer bytes, int count) {
+        Map<String, Entry> index = new LinkedHashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            byte[] key = new byte[bytes.getShort() & 0xFFFF];
+            bytes.get(key);
+            index.put(new String(key, StandardCharsets.UTF_8), new Entry(bytes.getInt(), bytes.getInt(),
+                                                                         bytes.getInt()));
+        }
+        return index;
+    }
+
+    /**
+     * @param bytes a partition's records.
+     * @param count the number of records.
+     * @return the records' scores.
+     * @throws IllegalArgumentException if a record is corrupt.
+     */
+    private static List<ScoreInfo> decode(ByteBuffer bytes, int count) {
+        List<ScoreInfo> scores = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ScoreInfo s = ScoreLog.decode(bytes, ScoreLog.VERSION);
+            if (s == null) {
+                throw new IllegalArgumentException("corrupt partition");
+            }
+            scores.add(s);
+        }
+        return scores;
+    }
+
+    /**
+     * @param channel a file's channel.
+     * @param position where to start reading.
+     * @param length how many bytes to read.
+     * @return the bytes read.
+     * @throws IOException if the file is shorter, or couldn't be read.
+     */
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, position + bytes.position()) < 0) {
+                throw new IOException("unexpected end of file");
+            }
+        }
+        bytes.flip();
+        return bytes;
+    }
+
+    /**
+     * @author Yuval Ezra.
+     * Where a partition is in the file.
+     */
+    private static class Entry {
+        private final int offset;
+        private final int length;
+        private final int count;
+
+        /**
+         * A constructor for Entry.
+         * @param offset where the partition starts.
+         * @param length the partition's length in bytes.
+         * @param count the number of scores in it.
+         */
+        Entry(int offset, int length, int count) {
+            this.offset = offset;
+            this.length = length;
+            this.count = count;
+        }
+    }
+}
@@ -10,6 +10,9 @@ public class ScoreInfo implements Serializable {
     private static final long serialVersionUID = -7299136942167451458L;
     private String name;
     private int score;
+    private String levelSet;
+    private long duration;
+    private long timestamp;
 
     /**
      * A constructor for ScoreInfo.
@@ -17,8 +20,24 @@ public class ScoreInfo implements Serializable {
      * @param score the score of the scorer.
      */
     public ScoreInfo(String name, int score) {
+        this(name, score, null, 0, 0);
+    }
+
+    /**
+     * A constructor for ScoreInfo.
+     * @param name the name of the scorer.
+     * @param score the score of the scorer.
+     * @param levelSet the key of the level set the score was made in, or null
+     * if it's unknown.
+     * @param duration how long it took to make the score, in milliseconds.
+     * @param timestamp when the score was made, in milliseconds since the epoch.
+     */
+    public ScoreInfo(String name, int score, String levelSet, long duration, long timestamp) {
         this.name = name;
         this.score = score;
+        this.levelSet = levelSet;
+        this.duration = duration;
+        this.timestamp = timestamp;
     }
 
     /**
@@ -35,6 +54,27 @@ public class ScoreInfo implements Serializable {
         return this.score;
     }
 
+    /**
+     * @return the key of the level set the score was made in, or null if it's unknown.
+     */
+    public String getLevelSet() {
+        return this.levelSet;
+    }
+
+    /**
+     * @return how long it took to make the score, in milliseconds (0 if it's unknown).
+     */
+    public long getDuration() {
+        return this.duration;
+    }
+
+    /**
+     * @return when the score was made, in milliseconds since the epoch (0 if it's unknown).
+     */
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
     @Override
     public String toString() {
         String format = "{name: %s, score: %d}";
@@ -0,0 +1,391 @@
+package game.highscores;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import game.misc.AtomicFiles;
+
+/**
+ * @author Yuval Ezra.
+ * A high-scores file that's only ever appended to. It starts with a header
+ * (a magic number and a version), followed by a record for every score
+ * added, in the order they were added: the name's length and the name in
+ * UTF-8, the score, the level set's key the same way as the name, the
+ * duration, the timestamp, and a CRC-32 of all of them. (Version 1 records
+ * have only the name and the score.) Replaying the records rebuilds the
+ * table. A record that was cut short or doesn't match its CRC, like one
+ * half-written when the game was killed, ends the log.
+ * Several processes may share a log. They take turns through lock(), and
+ * isCurrent() tells whether another one changed the log since it was read.
+ */
+class ScoreLog {
+
+    static final int MAGIC = 0x41524B53;
+    static final int VERSION = 2;
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    // the locks of the logs this process is using, by canonical path
+    private static final Map<String, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+    private File file;
+    private int format;
+    private List<ScoreInfo> records;
+
+    // where the valid records end, and new ones are written
+    private long end;
+
+    // what identifies the version of the file that was read or written
+    private Object version;
+
+    /**
+     * A constructor for ScoreLog.
+     * @param file the log's file.
+     * @param format the version of the log's format.
+     * @param records the scores in the log, oldest first.
+     * @param end the length of the log's valid part.
+     */
+    private ScoreLog(File file, int format, List<ScoreInfo> records, long end) {
+        this.file = file;
+        this.format = format;
+        this.records = records;
+        this.end = end;
+        this.version = version(file);
+    }
+
+    /**
+     * Locks a log's file against the other processes and threads using it,
+     * until the returned lock is closed. The lock is held on a separate
+     * ".lock" file, since the log's file itself is replaced when it's
+     * rewritten. A thread must not lock a file it already locked.
+     * @param file the log's file.
+     * @return the lock.
+     * @throws IOException if the file couldn't be locked.
+     */
+    static Closeable lock(File file) throws IOException {
+        return lock(file, true);
+    }
+
+    /**
+     * Locks a log's file like lock(), but only if no one else holds it.
+     * @param file the log's file.
+     * @return the lock, or null if it's held by another thread or process.
+     * @throws IOException if the file couldn't be locked.
+     */
+    static Closeable tryLock(File file) throws IOException {
+        return lock(file, false);
+    }
+
+    /**
+     * Locks a log's file (see lock()).
+     * @param file the log's file.
+     * @param wait whether to wait for the lock if someone else holds it.
+     * @return the lock, or null if it's held and 'wait' is false.
+     * @throws IOException if the file couldn't be locked.
+     */
+    private static Closeable lock(File file, boolean wait) throws IOException {
+        File lockFile = new File(file.getPath() + ".lock");
+
+        // a process may hold a file's lock only once, so its threads take turns first
+        ReentrantLock threads = LOCKS.computeIfAbsent(lockFile.getCanonicalPath(), p -> new ReentrantLock());
+        if (wait) {
+            threads.lock();
+        } else if (!threads.tryLock()) {
+            return null;
+        }
+        try {
+            FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+            try {
+                FileLock processes = wait ? channel.lock() : channel.tryLock();
+                if (processes == null) {
+                    channel.close();
+                    threads.unlock();
+                    return null;
+                }
+                return () -> {
+                    try {
+                        processes.release();
+                        channel.close();
+                    } finally {
+                        threads.unlock();
+                    }
+                };
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        } catch (IOException | RuntimeException e) {
+            threads.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * @param file a file.
+     * @return true if 'file' starts like a score log.
+     */
+    static boolean isLog(File file) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads a score log.
+     * @param file the log's file.
+     * @return the log.
+     * @throws IOException if the file couldn't be read, or isn't a score log.
+     */
+    static ScoreLog read(File file) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        if (bytes.remaining() < HEADER_SIZE || bytes.getInt() != MAGIC) {
+            throw new IOException(file + " isn't a score log");
+        }
+        int format = bytes.getInt();
+        if (format < 1 || format > VERSION) {
+            throw new IOException(file + " is of another version");
+        }
+
+        List<ScoreInfo> records = new ArrayList<>();
+        int end = HEADER_SIZE;
+        ScoreInfo s = decode(bytes, format);
+        while (s != null) {
+            records.add(s);
+            end = bytes.position();
+            s = decode(bytes, format);
+        }
+
+        // the bytes after the last valid record are dropped on the next append
+        if (end < bytes.limit()) {
+            System.out.println("ignoring the last " + (bytes.limit() - end) + " bytes of " + file);
+        }
+        return new ScoreLog(file, format, records, end);
+    }
+
+    /**
+     * Writes a new score log, replacing the file whole (see AtomicFiles).
+     * @param file the log's file.
+     * @param scores the scores to write, oldest first.
+     * @return the log.
+     * @throws IOException if the file couldn't be written.
+     */
+    static ScoreLog write(File file, List<ScoreInfo> scores) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        for (ScoreInfo s : scores) {
+            out.write(encode(s));
+        }
+        AtomicFiles.replace(file, bytes.toByteArray());
+        return new ScoreLog(file, VERSION, new ArrayList<>(scores), bytes.size());
+    }
+
+    /**
+     * @return the version of the log's format. Only logs of the current
+     * version (VERSION) can be appended to.
+     */
+    int getFormat() {
+        return this.format;
+    }
+
+    /**
+     * Appends scores to the end of the log, without rewriting the rest of it,
+     * and syncs them to the disk. A crash while appending leaves a record cut
+     * short, which is ignored when the log is read.
+     * @param scores the scores to append, oldest first.
+     * @throws IOException if the file couldn't be written.
+     */
+    void append(List<ScoreInfo> scores) throws IOException {
+        if (scores.isEmpty()) {
+            return;
+        }
+        if (this.format != VERSION) {
+            throw new IOException(this.file + " is of an older version");
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(scores.stream().mapToInt(ScoreLog::recordSize).sum());
+        for (ScoreInfo s : scores) {
+            bytes.put(encode(s));
+        }
+        bytes.flip();
+        try (FileChannel channel = FileChannel.open(this.file.toPath(), StandardOpenOption.WRITE)) {
+
+            // dropping a record that was cut short, so the new ones can be read
+            if (channel.size() > this.end) {
+                channel.truncate(this.end);
+            }
+            long position = this.end;
+            while (bytes.hasRemaining()) {
+                position += channel.write(bytes, position);
+            }
+            channel.force(false);
+            this.end = position;
+        }
+        this.records.addAll(scores);
+        this.version = version(this.file);
+    }
+
+    /**
+     * Checks, without reading it, that the log's file is still the one that
+     * was read or written - that no other process appended to it or
+     * rewrote it since.
+     * @return true if the log is up to date with its file.
+     */
+    boolean isCurrent() {
+        return this.version != null && this.version.equals(version(this.file));
+    }
+
+    /**
+     * @param file a file.
+     * @return what identifies the file's current version: which file it is
+     * (a rewritten log is a new file), when it was changed, and its length.
+     * Null if it doesn't exist.
+     */
+    static Object version(File file) {
+        try {
+            BasicFileAttributes a = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            return Arrays.asList(a.fileKey(), a.lastModifiedTime(), a.size());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the log's file.
+     */
+    File getFile() {
+        return this.file;
+    }
+
+    /**
+     * @return the scores in the log, oldest first.
+     */
+    List<ScoreInfo> getRecords() {
+        return Collections.unmodifiableList(this.records);
+    }
+
+    /**
+     * @param score a score.
+     * @return the score's record, in the current version's format.
+     */
+    static byte[] encode(ScoreInfo score) {
+        ByteBuffer record = ByteBuffer.allocate(recordSize(score));
+        putString(record, score.getName());
+        record.putInt(score.getScore());
+        putString(record, score.getLevelSet());
+        record.putLong(score.getDuration());
+        record.putLong(score.getTimestamp());
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue());
+        return record.array();
+    }
+
+    /**
+     * Reads a record, and moves past it if it's valid.
+     * @param bytes the bytes to read the record from, from their position.
+     * @param format the version of the record's format.
+     * @return the record's score, or null if the record was cut short or
+     * doesn't match its CRC.
+     */
+    static ScoreInfo decode(ByteBuffer bytes, int format) {
+        int start = bytes.position();
+        try {
+            String name = getString(bytes);
+            int score = bytes.getInt();
+            String levelSet = null;
+            long duration = 0;
+            long timestamp = 0;
+            if (format >= 2) {
+                levelSet = getString(bytes);
+                duration = bytes.getLong();
+                timestamp = bytes.getLong();
+            }
+            CRC32 crc = new CRC32();
+            ByteBuffer record = bytes.duplicate();
+            record.position(start).limit(bytes.position());
+            crc.update(record);
+            if ((int) crc.getValue() != bytes.getInt()) {
+                bytes.position(start);
+                return null;
+            }
+            return new ScoreInfo(name, score, levelSet, duration, timestamp);
+        } catch (RuntimeException e) {
+
+            // cut short, or a length that makes no sense
+            bytes.position(start);
+            return null;
+        }
+    }
+
+    /**
+     * @param score a score.
+     * @return the length of the score's record.
+     */
+    private static int recordSize(ScoreInfo score) {
+        return 4 * Integer.BYTES + 2 * Long.BYTES + bytes(score.getName()).length
+                + bytes(score.getLevelSet()).length;
+    }
+
+    /**
+     * @param s a string, or null.
+     * @return the string in UTF-8, or an empty array for null.
+     */
+    private static byte[] bytes(String s) {
+        return s == null ? new byte[0] : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a string's length (-1 for null) and its bytes in UTF-8.
+     * @param record where to write the string.
+     * @param s the string, or null.
+     */
+    private static void putString(ByteBuffer record, String s) {
+        if (s == null) {
+            record.putInt(-1);
+            return;
+        }
+        byte[] b = bytes(s);
+        record.putInt(b.length);
+        record.put(b);
+    }
+
+    /**
+     * @param bytes where to read a string from, written by putString().
+     * @return the string.
+     */
+    private static String getString(ByteBuffer bytes) {
+        int length = bytes.getInt();
+        if (length < -1 || length > bytes.remaining()) {
+            throw new IllegalArgumentException("bad length " + length);
+        }
+        if (length == -1) {
+            return null;
+        }
+        byte[] s = new byte[length];
+        bytes.get(s);
+        return new String(s, StandardCharsets.UTF_8);
+    }
+}
@@ -1,9 +1,10 @@
 package game.levels;
 
 import java.io.File;
-import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import biuoop.DialogManager;
 import biuoop.GUI;
@@ -15,24 +16,34 @@ import game.animation.MenuAnimation;
 import game.decorators.KeyPressStoppableAnimation;
 import game.highscores.HighScoresAnimation;
 import game.highscores.HighScoresTable;
+import game.highscores.HighScoresWriter;
+import game.highscores.PartitionedHighScores;
 import game.highscores.ScoreInfo;
+import game.levels.levelCreators.AssetLoader;
 import game.levels.levelCreators.LevelSet;
 import game.levels.levelCreators.LevelSetReader;
 import game.menu.Menu;
 import game.menu.ShowHiScoresTask;
 import game.menu.Task;
 import game.misc.Counter;
+import game.misc.Resources;
 
 /**
  * @author Yuval Ezra. A Game Flow.
  */
 public class GameFlow {
 
+    private static final File HIGH_SCORES = new File("highscores.txt");
+    private static final File LEVEL_HIGH_SCORES = new File("highscores_levels.dat");
+    private static final int PARTITION_SIZE = 5;
+
     private AnimationRunner ar;
     private KeyboardSensor keyboard;
     private Counter lives;
     private Counter score;
     private GUI gui;
+    private HighScoresTable highScores;
+    private PartitionedHighScores partitions;
 
     /**
      * A constructor for GameFlow.
@@ -54,6 +65,16 @@ public class GameFlow {
      * @param levels the levels to run.
      */
     public void runLevels(List<LevelInformation> levels) {
+        this.runLevels(null, levels);
+    }
+
+    /**
+     * Runs the levels of a level set, and records the high scores of the set
+     * and of each of its levels.
+     * @param levelSet the level set's key, or null if the levels aren't a set.
+     * @param levels the levels to run.
+     */
+    public void runLevels(String levelSet, List<LevelInformation> levels) {
         /*
          * Menu<Task<Void>> menu = this.initializeMenu(); // ... while (true) {
          * this.ar.run(menu); // wait for user selection Task<Void> task =
@@ -61,9 +82,15 @@ public class GameFlow {
          */
 
         boolean win = true;
+        long start = System.currentTimeMillis();
+
+        // level name -> the points scored in it and how long it took, for the levels cleared
+        Map<String, long[]> cleared = new LinkedHashMap<>();
         for (LevelInformation levelInfo : levels) {
 
             GameLevel level = new GameLevel(levelInfo, this.keyboard, this.ar, this.lives, this.score);
+            int scoreBefore = this.score.getValue();
+            long levelStart = System.currentTimeMillis();
 
             level.initialize();
 
@@ -75,18 +102,35 @@ public class GameFlow {
                 win = false;
                 break;
             }
+            cleared.put(levelInfo.levelName(), new long[] {this.score.getValue() - scoreBefore,
+                                                           System.currentTimeMillis() - levelStart});
         }
-
-        File f = new File("highscores.txt");
-        HighScoresTable t = HighScoresTable.loadFromFile(f);
-        if (t.getRank(score.getValue()) <= t.size()) {
+        long finish = System.currentTimeMillis();
+
+        HighScoresTable t = this.getHighScores();
+        PartitionedHighScores p = this.getPartitions();
+        boolean qualifies = t.getRank(score.getValue()) <= t.size();
+        if (levelSet != null) {
+            qualifies |= p.qualifies(PartitionedHighScores.levelSetKey(levelSet), score.getValue());
+            for (Map.Entry<String, long[]> l : cleared.entrySet()) {
+                qualifies |= p.qualifies(PartitionedHighScores.levelKey(levelSet, l.getKey()), (int) l.getValue()[0]);
+            }
+        }
+        if (qualifies) {
             DialogManager dialog = this.gui.getDialogManager();
             String name = dialog.showQuestionDialog("Name", "What is your name?", "");
-            t.add(new ScoreInfo(name, score.getValue()));
-            try {
-                t.save(f);
-            } catch (IOException e) {
-                e.printStackTrace();
+            ScoreInfo info = new ScoreInfo(name, score.getValue(), levelSet, finish - start, finish);
+            t.add(info);
+
+            // saved on another thread, so the end screen shows right away
+            HighScoresWriter.getInstance().save(t, HIGH_SCORES);
+            if (levelSet != null) {
+                p.add(PartitionedHighScores.levelSetKey(levelSet), info);
+                for (Map.Entry<String, long[]> l : cleared.entrySet()) {
+                    p.add(PartitionedHighScores.levelKey(levelSet, l.getKey()),
+                          new ScoreInfo(name, (int) l.getValue()[0], levelSet, l.getValue()[1], finish));
+                }
+                HighScoresWriter.getInstance().save(p);
             }
         }
 
@@ -100,17 +144,35 @@ public class GameFlow {
         }
     }
 
+    /**
+     * @return the high-scores table, loaded from its file the first time.
+     */
+    private HighScoresTable getHighScores() {
+        if (this.highScores == null) {
+            this.highScores = HighScoresTable.loadFromFile(HIGH_SCORES);
+        }
+        return this.highScores;
+    }
+
+    /**
+     * @return the high-scores of every level set and level.
+     */
+    private PartitionedHighScores getPartitions() {
+        if (this.partitions == null) {
+            this.partitions = new PartitionedHighScores(LEVEL_HIGH_SCORES, PARTITION_SIZE);
+        }
+        return this.partitions;
+    }
+
     /**
      * Initializing the Menu of the game and the GameFlow overall.
      * @param levelSetsPath the File containing the level-sets.
      * @return a new Menu for this Game.
      */
     public Menu<Task<Void>> initializeMenu(String levelSetsPath) {
-        Menu<Task<Void>> menu = new MenuAnimation<Task<Void>>(this.keyboard, this.ar);
+        MenuAnimation<Task<Void>> menu = new MenuAnimation<Task<Void>>(this.keyboard, this.ar);
 
-        // create a new highscores file
-        File f = new File("highscores.txt");
-        HighScoresTable t = HighScoresTable.loadFromFile(f);
+        HighScoresTable t = this.getHighScores();
         Animation scores = new KeyPressStoppableAnimation(gui.getKeyboardSensor(), KeyboardSensor.SPACE_KEY,
                 new HighScoresAnimation(t));
 
@@ -128,7 +190,7 @@ public class GameFlow {
         // create the level-set-pick screen
         Menu<Task<Void>> levelScreen = new MenuAnimation<Task<Void>>(gui.getKeyboardSensor(), ar, "Choose a level set");
         InputStreamReader levelRead =
-                new InputStreamReader(ClassLoader.getSystemClassLoader().getResourceAsStream(levelSetsPath));
+                new InputStreamReader(Resources.open(levelSetsPath));
         List<LevelSet> levelSets = LevelSetReader.fromReader(levelRead);
 
         // add the level sets to the selections of 'levelSetScreen'
@@ -136,15 +198,12 @@ public class GameFlow {
             Task<Void> tempPlay = new Task<Void>() {
                 public Void run() {
                     // creating the gameFlow
-                    GameFlow.this.runLevels(set.getLvls());
-                    try {
-                        t.load(f);
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                    // scores
+                    GameFlow.this.runLevels(set.getKey(), set.getLvls());
+                    // the level set's scores
+                    HighScoresTable setScores = GameFlow.this.getPartitions()
+                            .getTable(PartitionedHighScores.levelSetKey(set.getKey()));
                     Animation scorez = new KeyPressStoppableAnimation(gui.getKeyboardSensor(),
-                            KeyboardSensor.SPACE_KEY, new HighScoresAnimation(t));
+                            KeyboardSensor.SPACE_KEY, new HighScoresAnimation(setScores, set.getDesc() + " SCORES"));
                     ar.run(scorez);
                     return null;
                 }
@@ -152,6 +211,19 @@ public class GameFlow {
             levelScreen.addSelection(set.getKey(), set.getDesc(), tempPlay);
         }
         menu.addSubMenu("s", "Play", levelScreen);
+
+        // reading the levels in the background once the menu is up, so they're
+        // likely ready when picked. The levels' files are scanned for their
+        // images first, so the images are decoded while the levels are read.
+        Thread prefetch = new Thread(() -> {
+            AssetLoader.getInstance().preload(levelSetsPath);
+            for (LevelSet set : levelSets) {
+                set.prefetch();
+            }
+        }, "level-prefetch");
+        prefetch.setDaemon(true);
+        prefetch.setPriority(Thread.MIN_PRIORITY);
+        menu.whenShown(prefetch::start);
         return menu;
     }
 }
\ No newline at end of file
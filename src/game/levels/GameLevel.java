@@ -5,10 +5,10 @@ import java.util.ArrayList;
 import java.util.List;
 import biuoop.DrawSurface;
 import biuoop.KeyboardSensor;
-import game.animation.Animation;
 import game.animation.AnimationRunner;
 import game.animation.CountdownAnimation;
 import game.animation.PauseScreen;
+import game.animation.SnapshotAnimation;
 import game.collections.GameEnvironment;
 import game.collections.SpriteCollection;
 import game.decorators.KeyPressStoppableAnimation;
@@ -23,6 +23,7 @@ import game.objects.Block;
 import game.objects.Paddle;
 import game.objects.ball.Ball;
 import game.objects.collidable.Collidable;
+import game.objects.sprite.DebugOverlay;
 import game.objects.sprite.LevelIndicator;
 import game.objects.sprite.LivesIndicator;
 import game.objects.sprite.ScoreIndicator;
@@ -32,12 +33,13 @@ import game.objects.sprite.Sprite;
  * @author Yuval Ezra
  * An Arkanoid game.
  */
-public class GameLevel implements Animation {
+public class GameLevel implements SnapshotAnimation {
     private SpriteCollection sprites;
     private GameEnvironment environment;
     private int wid;
     private int len;
     private Paddle paddle;
+    private List<Ball> balls;
     private KeyboardSensor keyboard;
 
     private Counter remainingBlocks;
@@ -46,6 +48,7 @@ public class GameLevel implements Animation {
     private Counter lives;
 
     private AnimationRunner runner;
+    private DebugOverlay overlay;
 
     private LevelInformation level;
 
@@ -76,6 +79,14 @@ public class GameLevel implements Animation {
         this.environment.addCollidable(c);
     }
 
+    /**
+     * Add a moving Collidable to the Game.
+     * @param c a moving Collidable to add to the Game.
+     */
+    public void addMovingCollidable(Collidable c) {
+        this.environment.addMovingCollidable(c);
+    }
+
     /**
      * Add a Sprite to the Game.
      * @param s a Sprite to add to the Game.
@@ -84,6 +95,14 @@ public class GameLevel implements Animation {
         this.sprites.addSprite(s);
     }
 
+    /**
+     * Add a Sprite that doesn't move to the Game.
+     * @param s a Sprite that doesn't move to add to the Game.
+     */
+    public void addStaticSprite(Sprite s) {
+        this.sprites.addStaticSprite(s);
+    }
+
     /**
      * Removes Collidable c from this Game.
      * @param c the Collidable to remove from this Game.
@@ -98,6 +117,7 @@ public class GameLevel implements Animation {
      */
     public void removeSprite(Sprite s) {
         this.sprites.removeSprite(s);
+        this.balls.remove(s);
     }
 
     /**
@@ -107,6 +127,20 @@ public class GameLevel implements Animation {
         return this.environment;
     }
 
+    /**
+     * @return this Paddle, or null if it wasn't placed yet.
+     */
+    public Paddle getPaddle() {
+        return this.paddle;
+    }
+
+    /**
+     * @return the Balls that are still in the game.
+     */
+    public List<Ball> getBalls() {
+        return java.util.Collections.unmodifiableList(this.balls);
+    }
+
     /**
      * @return this remainingBlocks.
      */
@@ -121,7 +155,9 @@ public class GameLevel implements Animation {
     public void initialize() {
 
         this.sprites = new SpriteCollection();
+        this.sprites.setDirtyTracking(this.runner.isDirtyTracking());
         this.environment = new GameEnvironment();
+        this.balls = new ArrayList<>();
 
         // initialize the Counters
         this.remainingBlocks = new Counter(this.level.numberOfBlocksToRemove());
@@ -138,7 +174,7 @@ public class GameLevel implements Animation {
         int thickness = 26;
 
         // creating the border blocks, screen and scoreboard
-        this.addSprite(new Block(new Rectangle(new Point(0, 0), this.wid, this.len),
+        this.addStaticSprite(new Block(new Rectangle(new Point(0, 0), this.wid, this.len),
                        Color.BLUE.darker().darker(), -1));
 
         // right border
@@ -172,7 +208,7 @@ public class GameLevel implements Animation {
         deathBorder.addHitListener(ballRemover);
         specialBlocks.add(deathBorder);
 
-        this.addSprite(this.level.getBackground());
+        this.addStaticSprite(this.level.getBackground());
         java.util.List<Block> blocks = this.level.blocks();
 
         // adding the special Blocks to this Game
@@ -187,10 +223,18 @@ public class GameLevel implements Animation {
             b.addToGame(this);
         }
 
+        // the Blocks don't move, so they're indexed once for the whole level
+        this.environment.buildStaticTree();
+
         // adding the score and life counters
         this.addSprite(scoreboard);
         this.addSprite(liveIndicator);
         this.addSprite(levelIndicator);
+
+        // the debug overlay is drawn over everything else, and while it's
+        // shown the regions drawn again every frame are outlined
+        this.overlay = new DebugOverlay(this.runner.getFrameStats(), this, this.keyboard, "f");
+        this.addSprite(this.overlay);
     }
 
     /**
@@ -242,6 +286,7 @@ public class GameLevel implements Animation {
         // adds the Balls to this Game
         for (Ball ball : balls) {
             ball.addToGame(this);
+            this.balls.add(ball);
             this.remainingBalls.increase(1);
         }
     }
@@ -267,10 +312,31 @@ public class GameLevel implements Animation {
                                                            new PauseScreen()));
         }
 
+        this.sprites.setShowDirtyRegions(this.overlay.isVisible());
         this.sprites.drawAllOn(d);
         this.sprites.notifyAllTimePassed(dt);
     }
 
+    @Override
+    public void step(double dt) {
+        if (this.keyboard.isPressed("p")) {
+            this.runner.run(new KeyPressStoppableAnimation(this.keyboard, KeyboardSensor.SPACE_KEY,
+                                                           new PauseScreen()));
+        }
+        this.sprites.notifyAllTimePassed(dt);
+    }
+
+    @Override
+    public void drawFrame(DrawSurface d, double alpha) {
+        this.sprites.setShowDirtyRegions(this.overlay.isVisible());
+        this.sprites.drawAllOn(d, alpha);
+    }
+
+    @Override
+    public Sprite snapshot() {
+        return this.sprites.snapshot(this.wid, this.len);
+    }
+
     @Override
     public boolean shouldStop() {
 
@@ -1,10 +1,10 @@
 package game.levels.backgrounds;
 
 import java.awt.Color;
-import java.awt.Image;
 
 import biuoop.DrawSurface;
 import game.misc.Fill;
+import game.misc.ImageCache;
 import game.objects.sprite.Sprite;
 
 /**
@@ -27,8 +27,7 @@ public class GeneralBackground implements Sprite {
         this.height = height;
         this.fill = fill;
         if (fill.getImage() != null) {
-            Image im = fill.getImage().getScaledInstance(width, height, Image.SCALE_DEFAULT);
-            this.fill = new Fill(im);
+            this.fill = new Fill(ImageCache.scaled(fill.getImage(), width, height), fill.getImagePath());
         }
     }
 
@@ -0,0 +1,117 @@
+package game.levels.blockCreators;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.zip.CRC32;
+
+import game.misc.Resources;
+
+/**
+ * @author Yuval Ezra.
+ * A process-wide cache of parsed block definitions files, so levels that use
+ * the same file share a single BlocksFromSymbolsFactory (and its images),
+ * parsed once. A file is parsed again only if its contents changed. Levels
+ * may be read on several threads at once; a thread that asks for a file
+ * that's being parsed waits for it instead of parsing it too.
+ */
+public final class BlocksDefinitionCache {
+
+    // resource path -> the file's checksum, and its factory
+    private static final Map<String, Entry> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Not to be instantiated.
+     */
+    private BlocksDefinitionCache() {
+    }
+
+    /**
+     * @param path a block definitions file's resource path.
+     * @return the BlocksFromSymbolsFactory defined by the file, or null if
+     * there's no such file. The same factory is returned for the same
+     * contents, so it must not be changed.
+     * @throws IOException if the file couldn't be read.
+     */
+    public static BlocksFromSymbolsFactory get(String path) throws IOException {
+        ByteBuffer bytes = Resources.read(path);
+        if (bytes == null) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.duplicate());
+        long checksum = crc.getValue();
+
+        Entry entry = CACHE.compute(path, (p, old) -> old != null && old.checksum == checksum ? old
+                : new Entry(checksum, new FutureTask<>(() -> parse(bytes))));
+
+        // only the first thread to get here parses the file
+        entry.factory.run();
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return entry.factory.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new IOException("Couldn't parse " + path, e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return the number of block definitions files cached.
+     */
+    public static int size() {
+        return CACHE.size();
+    }
+
+    /**
+     * Drops all the cached factories.
+     */
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    /**
+     * @param bytes a block definitions file's contents.
+     * @return the BlocksFromSymbolsFactory the file defines.
+     */
+    private static BlocksFromSymbolsFactory parse(ByteBuffer bytes) {
+        String text = Charset.defaultCharset().decode(bytes.duplicate()).toString();
+        return BlocksDefinitionReader.fromReader(new StringReader(text));
+    }
+
+    /**
+     * @author Yuval Ezra.
+     * A cached file: its checksum, and its factory (being) parsed.
+     */
+    private static class Entry {
+        private final long checksum;
+        private final FutureTask<BlocksFromSymbolsFactory> factory;
+
+        /**
+         * A constructor for Entry.
+         * @param checksum the file's CRC-32.
+         * @param factory the task parsing the file.
+         */
+        Entry(long checksum, FutureTask<BlocksFromSymbolsFactory> factory) {
+            this.checksum = checksum;
+            this.factory = factory;
+        }
+    }
+}
@@ -74,7 +74,11 @@ public class BlocksDefinitionReader {
         spacerWidths = makeSpacerWidth(spacerDefs);
 
         blockCreators = makeBlockCreators(defaultMap, blockDefs);
-        return new BlocksFromSymbolsFactory(spacerWidths, blockCreators);
+        BlocksFromSymbolsFactory factory = new BlocksFromSymbolsFactory(spacerWidths, blockCreators);
+
+        // the Blocks' images are drawn from a few large images instead of many small ones
+        factory.packImages();
+        return factory;
     }
 
     /**
@@ -2,6 +2,8 @@ package game.levels.blockCreators;
 
 import java.util.Map;
 
+import game.misc.AtlasBuilder;
+import game.misc.TextureAtlas;
 import game.objects.Block;
 
 /**
@@ -22,6 +24,27 @@ public class BlocksFromSymbolsFactory {
         this.blockCreators = blockCreators;
     }
 
+    /**
+     * Packs the images of all the Blocks this factory creates, scaled to their
+     * Blocks' sizes, into a TextureAtlas, and has the Blocks draw its regions.
+     * @return the TextureAtlas the images were packed into.
+     */
+    public TextureAtlas packImages() {
+        AtlasBuilder builder = new AtlasBuilder();
+        for (BlockCreator c : this.blockCreators.values()) {
+            if (c instanceof GeneralBlockCreator) {
+                ((GeneralBlockCreator) c).addImagesTo(builder);
+            }
+        }
+        TextureAtlas atlas = builder.build();
+        for (BlockCreator c : this.blockCreators.values()) {
+            if (c instanceof GeneralBlockCreator) {
+                ((GeneralBlockCreator) c).useAtlas(atlas);
+            }
+        }
+        return atlas;
+    }
+
     /**
      * Checks if 's' is a valid space symbol.
      * @param s the string to check if it's a valid space symbol.
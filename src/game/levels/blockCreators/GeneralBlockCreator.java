@@ -1,4 +1,5 @@
 package game.levels.blockCreators;
+import java.awt.Image;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -6,6 +7,8 @@ import java.util.List;
 import game.geometry.Point;
 import game.geometry.Rectangle;
 import game.misc.Fill;
+import game.misc.AtlasBuilder;
+import game.misc.TextureAtlas;
 import game.objects.Block;
 
 /**
@@ -52,6 +55,32 @@ public class GeneralBlockCreator implements BlockCreator {
         this.stroke = null;
     }
 
+    /**
+     * Adds the images of this creator's Fills, at its Blocks' size, to an atlas to pack.
+     * @param atlas the AtlasBuilder to add the images to.
+     */
+    public void addImagesTo(AtlasBuilder atlas) {
+        for (Fill f : this.fills) {
+            if (f.getImage() != null) {
+                atlas.add(f.getImage(), this.width, this.height);
+            }
+        }
+    }
+
+    /**
+     * Replaces the images of this creator's Fills with their regions in 'atlas',
+     * so its Blocks draw those instead.
+     * @param atlas a TextureAtlas the images were packed into by addImagesTo().
+     */
+    public void useAtlas(TextureAtlas atlas) {
+        List<Fill> packed = new ArrayList<>(this.fills.size());
+        for (Fill f : this.fills) {
+            Image region = f.getImage() == null ? null : atlas.getRegion(f.getImage(), this.width, this.height);
+            packed.add(region == null ? f : new Fill(region, f.getImagePath()));
+        }
+        this.fills = packed;
+    }
+
     @Override
     public Block create(int xpos, int ypos) {
         Rectangle r = new Rectangle(new Point(xpos, ypos), this.width, this.height);
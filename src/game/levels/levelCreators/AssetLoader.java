@@ -0,0 +1,183 @@
+package game.levels.levelCreators;
+
+import java.awt.Image;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import game.misc.Resources;
+
+/**
+ * @author Yuval Ezra.
+ * Decodes the images of the level sets in the background, on a few threads,
+ * so they're ready (or on their way) by the time a level needs them. Every
+ * image is decoded once, however many levels and Blocks use it.
+ */
+public class AssetLoader {
+
+    private static final Pattern IMAGE = Pattern.compile("image\\(([^)]*)\\)");
+    private static final String BLOCK_DEFINITIONS = "block_definitions:";
+
+    private static AssetLoader instance = null;
+
+    private ExecutorService executor;
+    private Map<String, Future<Image>> images;
+
+    /**
+     * A constructor for AssetLoader.
+     * @param threads the number of threads decoding images.
+     */
+    public AssetLoader(int threads) {
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "asset-loader");
+            t.setDaemon(true);
+            return t;
+        });
+        this.images = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @return the AssetLoader the level readers load their images with.
+     */
+    public static synchronized AssetLoader getInstance() {
+        if (instance == null) {
+            instance = new AssetLoader(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+        }
+        return instance;
+    }
+
+    /**
+     * Starts decoding every image used by the level sets in a level-sets file:
+     * the levels' backgrounds, and the Blocks in their block definitions.
+     * @param levelSetsPath the level-sets file's resource path.
+     * @return the resource paths of the images found.
+     */
+    public List<String> preload(String levelSetsPath) {
+        Set<String> found = new LinkedHashSet<>();
+        Set<String> blockDefinitions = new LinkedHashSet<>();
+        List<String> lines = readLines(levelSetsPath);
+
+        // every second line is the path of a level set's level definitions
+        for (int i = 1; i < lines.size(); i += 2) {
+            for (String line : readLines(lines.get(i).trim())) {
+                findImages(line, found);
+                int start = line.indexOf(BLOCK_DEFINITIONS);
+                if (start >= 0) {
+                    blockDefinitions.add(line.substring(start + BLOCK_DEFINITIONS.length()).trim());
+                }
+            }
+        }
+        for (String path : blockDefinitions) {
+            for (String line : readLines(path)) {
+                findImages(line, found);
+            }
+        }
+        for (String path : found) {
+            this.load(path);
+        }
+        return new ArrayList<>(found);
+    }
+
+    /**
+     * Starts decoding an image, unless it was already started.
+     * @param path the image's resource path.
+     * @return the image, when it's decoded.
+     */
+    public Future<Image> load(String path) {
+        return this.images.computeIfAbsent(path, p -> this.executor.submit(() -> decode(p)));
+    }
+
+    /**
+     * @param path an image's resource path.
+     * @return true if the image was decoded (or failed to be).
+     */
+    public boolean isReady(String path) {
+        Future<Image> f = this.images.get(path);
+        return f != null && f.isDone();
+    }
+
+    /**
+     * Waits for an image to be decoded, starting to decode it if it wasn't yet.
+     * @param path the image's resource path.
+     * @return the decoded image.
+     * @throws IOException if the image couldn't be read.
+     */
+    public Image get(String path) throws IOException {
+        Future<Image> f = this.load(path);
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return f.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IOException("Couldn't decode image " + path, e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @param path an image's resource path.
+     * @return the decoded image.
+     * @throws IOException if the image couldn't be read.
+     */
+    private static Image decode(String path) throws IOException {
+        return Resources.readImage(path);
+    }
+
+    /**
+     * Adds the paths of all the images in a line to 'found'.
+     * @param line a line of a definitions file.
+     * @param found the image paths found so far.
+     */
+    private static void findImages(String line, Set<String> found) {
+        Matcher matcher = IMAGE.matcher(line);
+        while (matcher.find()) {
+            found.add(matcher.group(1));
+        }
+    }
+
+    /**
+     * @param path a text resource's path.
+     * @return the resource's lines, or none if it couldn't be read.
+     */
+    static List<String> readLines(String path) {
+        List<String> lines = new ArrayList<>();
+        InputStream in = Resources.open(path);
+        if (in == null) {
+            return lines;
+        }
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(in))) {
+            String line = r.readLine();
+            while (line != null) {
+                lines.add(line);
+                line = r.readLine();
+            }
+        } catch (IOException e) {
+            System.out.println("failed to read " + path);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,184 @@
+package game.levels.levelCreators;
+
+import java.awt.Color;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import game.levels.LevelInformation;
+import game.levels.blockCreators.GeneralBlockCreator;
+import game.misc.AtlasBuilder;
+import game.misc.Fill;
+import game.misc.TextureAtlas;
+import game.misc.Tuple;
+import game.objects.Block;
+import game.objects.ball.Velocity;
+
+/**
+ * @author Yuval Ezra.
+ * Reads levels compiled by LevelCompiler.
+ */
+public class CompiledLevelLoader {
+
+    /**
+     * Reads compiled levels, if they were compiled from the given sources.
+     * @param in the compiled levels.
+     * @param sourceHash the hash of the sources, by LevelCompiler.sourceHash().
+     * @return the levels, or null if they were compiled by another version of
+     * the format or from other sources.
+     * @throws IOException if the levels couldn't be read, or an image they use couldn't be.
+     */
+    public static List<LevelInformation> load(InputStream in, byte[] sourceHash) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != LevelCompiler.MAGIC) {
+            throw new IOException("Not a compiled level set");
+        }
+        if (data.readShort() != LevelCompiler.VERSION) {
+            return null;
+        }
+        byte[] hash = new byte[LevelCompiler.HASH_SIZE];
+        data.readFully(hash);
+        if (!Arrays.equals(hash, sourceHash)) {
+            return null;
+        }
+
+        String[] strings = new String[data.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = data.readUTF();
+        }
+
+        // the Blocks of all the levels draw their images from the same atlas
+        int levelCount = data.readInt();
+        List<CompiledLevel> compiled = new ArrayList<>(levelCount);
+        AtlasBuilder atlas = new AtlasBuilder();
+        for (int i = 0; i < levelCount; i++) {
+            CompiledLevel level = readLevel(data, strings);
+            for (GeneralBlockCreator style : level.styles) {
+                style.addImagesTo(atlas);
+            }
+            compiled.add(level);
+        }
+        TextureAtlas packed = atlas.build();
+
+        List<LevelInformation> levels = new ArrayList<>(levelCount);
+        for (CompiledLevel level : compiled) {
+            levels.add(level.create(packed));
+        }
+        return levels;
+    }
+
+    /**
+     * Reads a single level.
+     * @param in where to read it from.
+     * @param strings the string table.
+     * @return the level, before its Blocks are created.
+     * @throws IOException if the level couldn't be read.
+     */
+    private static CompiledLevel readLevel(DataInputStream in, String[] strings) throws IOException {
+        CompiledLevel level = new CompiledLevel();
+        level.name = strings[in.readInt()];
+        int velocityCount = in.readInt();
+        level.velocities = new ArrayList<>(velocityCount);
+        for (int i = 0; i < velocityCount; i++) {
+            level.velocities.add(new Velocity(in.readDouble(), in.readDouble()));
+        }
+        level.background = readFill(in, strings);
+        level.paddleSpeed = in.readInt();
+        level.paddleWidth = in.readInt();
+
+        int styleCount = in.readInt();
+        level.styles = new ArrayList<>(styleCount);
+        for (int i = 0; i < styleCount; i++) {
+            int width = in.readInt();
+            int height = in.readInt();
+            int hitPoints = in.readInt();
+            int fillCount = in.readInt();
+            List<Fill> fills = new ArrayList<>(fillCount);
+            for (int j = 0; j < fillCount; j++) {
+                fills.add(readFill(in, strings));
+            }
+            Fill stroke = readFill(in, strings);
+            level.styles.add(new GeneralBlockCreator(width, height, hitPoints, fills, stroke));
+        }
+
+        int blockCount = in.readInt();
+        level.xs = readInts(in, blockCount);
+        level.ys = readInts(in, blockCount);
+        level.blockStyles = readInts(in, blockCount);
+        return level;
+    }
+
+    /**
+     * @param in where to read from.
+     * @param count the number of ints.
+     * @return the ints read.
+     * @throws IOException if they couldn't be read.
+     */
+    private static int[] readInts(DataInputStream in, int count) throws IOException {
+        int[] ints = new int[count];
+        for (int i = 0; i < count; i++) {
+            ints[i] = in.readInt();
+        }
+        return ints;
+    }
+
+    /**
+     * @param in where to read from.
+     * @param strings the string table.
+     * @return the Fill read, or null if none was written.
+     * @throws IOException if it couldn't be read, or its image couldn't be.
+     */
+    private static Fill readFill(DataInputStream in, String[] strings) throws IOException {
+        int kind = in.readByte();
+        switch (kind) {
+            case LevelCompiler.FILL_NONE:
+                return null;
+
+            case LevelCompiler.FILL_COLOR:
+                return new Fill(new Color(in.readInt(), true));
+
+            case LevelCompiler.FILL_IMAGE:
+                String path = strings[in.readInt()];
+                return new Fill(AssetLoader.getInstance().get(path), path);
+
+            default:
+                throw new IOException("Unknown fill " + kind);
+        }
+    }
+
+    /**
+     * A level as it was read, before its Blocks are created.
+     */
+    private static class CompiledLevel {
+        private String name;
+        private List<Velocity> velocities;
+        private Fill background;
+        private int paddleSpeed;
+        private int paddleWidth;
+        private List<GeneralBlockCreator> styles;
+        private int[] xs;
+        private int[] ys;
+        private int[] blockStyles;
+
+        /**
+         * Creates the level's Blocks, and the level.
+         * @param atlas the atlas holding the Blocks' images.
+         * @return the level.
+         */
+        private LevelInformation create(TextureAtlas atlas) {
+            for (GeneralBlockCreator style : this.styles) {
+                style.useAtlas(atlas);
+            }
+            List<Block> blocks = new ArrayList<>(this.xs.length);
+            for (int i = 0; i < this.xs.length; i++) {
+                blocks.add(this.styles.get(this.blockStyles[i]).create(this.xs[i], this.ys[i]));
+            }
+            int wid = 800, len = 600;
+            return new GeneralLevelCreator(this.name, this.velocities, this.background, this.paddleSpeed,
+                                           this.paddleWidth, blocks, new Tuple<>(wid, len));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package game.levels.levelCreators;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import game.levels.LevelInformation;
@@ -78,9 +79,22 @@ public class GeneralLevelCreator implements LevelInformation {
         return new GeneralBackground(this.width, this.height, this.background);
     }
 
+    /**
+     * @return the Fill the level's background is drawn with.
+     */
+    public Fill getBackgroundFill() {
+        return this.background;
+    }
+
     @Override
     public List<Block> blocks() {
-        return this.blocks;
+
+        // every game gets its own copies, so hitting them doesn't change the next games
+        List<Block> copies = new ArrayList<>(this.blocks.size());
+        for (Block b : this.blocks) {
+            copies.add(new Block(b));
+        }
+        return copies;
     }
 
     @Override
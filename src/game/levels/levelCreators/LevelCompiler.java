@@ -0,0 +1,251 @@
+package game.levels.levelCreators;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import game.levels.LevelInformation;
+import game.misc.Fill;
+import game.misc.Resources;
+import game.objects.Block;
+import game.objects.ball.Velocity;
+
+/**
+ * @author Yuval Ezra.
+ * Compiles a level set into a compact binary format, that CompiledLevelLoader
+ * turns back into levels without parsing any text.
+ * The format, all numbers big-endian:
+ * a header - the magic number, the format's version, and a SHA-256 hash of
+ * the text files the levels were read from; a string table - its size and
+ * its strings (level names and image paths); and the levels - their number,
+ * and for every level: its name, ball velocities, background, paddle speed
+ * and width, its distinct Block styles (size, hit points, Fills and stroke),
+ * and its Blocks as packed arrays - all their x's, all their y's, and all
+ * their style indices.
+ */
+public class LevelCompiler {
+
+    /**
+     * The first 4 bytes of a compiled level set ("ARKL").
+     */
+    static final int MAGIC = 0x41524B4C;
+
+    /**
+     * The format's version, changed whenever the format changes.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The number of bytes in a source hash.
+     */
+    static final int HASH_SIZE = 32;
+
+    // how a Fill is written
+    static final int FILL_NONE = 0;
+    static final int FILL_COLOR = 1;
+    static final int FILL_IMAGE = 2;
+
+    private static final String BLOCK_DEFINITIONS = "block_definitions:";
+
+    /**
+     * Hashes the text files a level set is read from: its level definitions,
+     * and the block definitions they use.
+     * @param definitionsPath the resource path of the level definitions.
+     * @return a SHA-256 hash of the files.
+     * @throws IOException if a file couldn't be read.
+     */
+    public static byte[] sourceHash(String definitionsPath) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        Set<String> sources = new LinkedHashSet<>();
+        sources.add(definitionsPath);
+        for (String line : AssetLoader.readLines(definitionsPath)) {
+            int start = line.indexOf(BLOCK_DEFINITIONS);
+            if (start >= 0) {
+                sources.add(line.substring(start + BLOCK_DEFINITIONS.length()).trim());
+            }
+        }
+        for (String path : sources) {
+            digest.update(path.getBytes("UTF-8"));
+            ByteBuffer bytes = Resources.read(path);
+            if (bytes == null) {
+                throw new IOException("No such file " + path);
+            }
+            digest.update(bytes);
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Writes levels in the compiled format.
+     * @param levels the levels, as read by LevelSpecificationReader.
+     * @param sourceHash the hash of the files the levels were read from.
+     * @param out where to write the compiled levels.
+     * @throws IOException if writing failed.
+     * @throws IllegalArgumentException if a level can't be compiled - it wasn't read
+     * from a file, or a Block's image or position isn't one a file can describe.
+     */
+    public static void compile(List<LevelInformation> levels, byte[] sourceHash, OutputStream out)
+            throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+
+        // the levels are written first, collecting the strings they use
+        ByteArrayOutputStream levelBytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(levelBytes);
+        body.writeInt(levels.size());
+        for (LevelInformation level : levels) {
+            if (!(level instanceof GeneralLevelCreator)) {
+                throw new IllegalArgumentException("Can't compile level " + level.levelName());
+            }
+            writeLevel(body, (GeneralLevelCreator) level, strings);
+        }
+        body.flush();
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.write(sourceHash, 0, HASH_SIZE);
+        data.writeInt(strings.size());
+        for (String s : strings.keySet()) {
+            data.writeUTF(s);
+        }
+        levelBytes.writeTo(data);
+        data.flush();
+    }
+
+    /**
+     * Writes a single level.
+     * @param out where to write it.
+     * @param level the level.
+     * @param strings the string table, that new strings are added to.
+     * @throws IOException if writing failed.
+     */
+    private static void writeLevel(DataOutputStream out, GeneralLevelCreator level, Map<String, Integer> strings)
+            throws IOException {
+        out.writeInt(index(strings, level.levelName()));
+        List<Velocity> velocities = level.initialBallVelocities();
+        out.writeInt(velocities.size());
+        for (Velocity v : velocities) {
+            out.writeDouble(v.getDX());
+            out.writeDouble(v.getDY());
+        }
+        writeFill(out, level.getBackgroundFill(), strings);
+        out.writeInt(level.paddleSpeed());
+        out.writeInt(level.paddleWidth());
+
+        // Blocks that look the same share a style, so it's written once
+        List<Block> blocks = level.blocks();
+        Map<ByteBuffer, Integer> styleIndices = new HashMap<>();
+        List<byte[]> styles = new ArrayList<>();
+        int[] blockStyles = new int[blocks.size()];
+        for (int i = 0; i < blocks.size(); i++) {
+            ByteArrayOutputStream style = new ByteArrayOutputStream();
+            writeStyle(new DataOutputStream(style), blocks.get(i), strings);
+            byte[] bytes = style.toByteArray();
+            Integer index = styleIndices.get(ByteBuffer.wrap(bytes));
+            if (index == null) {
+                index = styles.size();
+                styleIndices.put(ByteBuffer.wrap(bytes), index);
+                styles.add(bytes);
+            }
+            blockStyles[i] = index;
+        }
+        out.writeInt(styles.size());
+        for (byte[] style : styles) {
+            out.write(style);
+        }
+
+        out.writeInt(blocks.size());
+        for (Block b : blocks) {
+            out.writeInt(whole(b.getCollisionRectangle().getUpperLeft().getX()));
+        }
+        for (Block b : blocks) {
+            out.writeInt(whole(b.getCollisionRectangle().getUpperLeft().getY()));
+        }
+        for (int style : blockStyles) {
+            out.writeInt(style);
+        }
+    }
+
+    /**
+     * Writes how a Block looks: its size, hit points, Fills and stroke.
+     * @param out where to write it.
+     * @param b the Block.
+     * @param strings the string table, that new strings are added to.
+     * @throws IOException if writing failed.
+     */
+    private static void writeStyle(DataOutputStream out, Block b, Map<String, Integer> strings) throws IOException {
+        out.writeInt(whole(b.getWidth()));
+        out.writeInt(whole(b.getHeight()));
+        out.writeInt(b.getHitPoints());
+        List<Fill> fills = b.getFills();
+        out.writeInt(fills.size());
+        for (Fill f : fills) {
+            writeFill(out, f, strings);
+        }
+        writeFill(out, b.getStroke(), strings);
+    }
+
+    /**
+     * Writes a Fill: whether it's a colour or an image, and the colour or the image's path.
+     * @param out where to write it.
+     * @param f the Fill, or null.
+     * @param strings the string table, that new strings are added to.
+     * @throws IOException if writing failed.
+     */
+    private static void writeFill(DataOutputStream out, Fill f, Map<String, Integer> strings) throws IOException {
+        if (f == null || (f.getColor() == null && f.getImage() == null)) {
+            out.writeByte(FILL_NONE);
+        } else if (f.getColor() != null) {
+            out.writeByte(FILL_COLOR);
+            out.writeInt(f.getColor().getRGB());
+        } else {
+            if (f.getImagePath() == null) {
+                throw new IllegalArgumentException("Can't compile an image that wasn't read from a file");
+            }
+            out.writeByte(FILL_IMAGE);
+            out.writeInt(index(strings, f.getImagePath()));
+        }
+    }
+
+    /**
+     * @param strings the string table.
+     * @param s a string.
+     * @return the index of 's' in the table, adding it if it isn't there.
+     */
+    private static int index(Map<String, Integer> strings, String s) {
+        Integer index = strings.get(s);
+        if (index == null) {
+            index = strings.size();
+            strings.put(s, index);
+        }
+        return index;
+    }
+
+    /**
+     * @param value a Block's position or size.
+     * @return 'value' as an int.
+     * @throws IllegalArgumentException if it isn't a whole number.
+     */
+    private static int whole(double value) {
+        if (value != Math.rint(value)) {
+            throw new IllegalArgumentException("Can't compile a Block at a fraction of a pixel");
+        }
+        return (int) value;
+    }
+}
@@ -0,0 +1,39 @@
+package game.levels.levelCreators;
+
+/**
+ * @author Yuval Ezra.
+ * An error in a level definitions file, with where in the file it is.
+ */
+public class LevelFormatException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private int line;
+    private int column;
+
+    /**
+     * A constructor for LevelFormatException.
+     * @param message what's wrong.
+     * @param line the line it's on, starting from 1.
+     * @param column the column it's on, starting from 1.
+     */
+    public LevelFormatException(String message, int line, int column) {
+        super("line " + line + ", column " + column + ": " + message);
+        this.line = line;
+        this.column = column;
+    }
+
+    /**
+     * @return the line of the error, starting from 1.
+     */
+    public int getLine() {
+        return this.line;
+    }
+
+    /**
+     * @return the column of the error, starting from 1.
+     */
+    public int getColumn() {
+        return this.column;
+    }
+}
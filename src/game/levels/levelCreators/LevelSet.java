@@ -2,17 +2,22 @@ package game.levels.levelCreators;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import game.levels.LevelInformation;
 
 /**
  * @author Yuval Ezra.
- * A level-set.
+ * A level-set. Its levels may be read only when they're first asked for,
+ * and are then kept.
  */
 public class LevelSet {
     private String key;
     private String desc;
-    private List<LevelInformation> lvls;
+
+    // reads the levels on its first run, and keeps them
+    private FutureTask<List<LevelInformation>> lvls;
 
     /**
      * An empty constructor for LevelSet.
@@ -20,7 +25,7 @@ public class LevelSet {
     public LevelSet() {
        this.key = "";
        this.desc = "";
-       this.lvls = new ArrayList<LevelInformation>();
+       this.lvls = done(new ArrayList<LevelInformation>());
     }
 
     /**
@@ -32,7 +37,20 @@ public class LevelSet {
     public LevelSet(String key, String desc, List<LevelInformation> lvls) {
         this.key = key;
         this.desc = desc;
-        this.lvls = lvls;
+        this.lvls = done(lvls);
+    }
+
+    /**
+     * A constructor for LevelSet, whose levels are read from a level
+     * definitions file (or its compiled form) the first time they're asked for.
+     * @param key the level-set's 'key'.
+     * @param desc the level-set's name.
+     * @param path the resource path of the level-set's level definitions.
+     */
+    public LevelSet(String key, String desc, String path) {
+        this.key = key;
+        this.desc = desc;
+        this.lvls = new FutureTask<>(() -> LevelSetReader.readLevels(path));
     }
 
     /**
@@ -50,10 +68,46 @@ public class LevelSet {
     }
 
     /**
-     * @return this level-sets's levels.
+     * @return this level-sets's levels. If they weren't read yet, they're
+     * read now, or waited for if they're being read on another thread.
      */
     public List<LevelInformation> getLvls() {
-        return this.lvls;
+        FutureTask<List<LevelInformation>> task = this.lvls;
+        task.run();
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) e.getCause();
+                    }
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Reads this level-set's levels, if they weren't read yet, so they're
+     * ready when they're asked for. Meant to be called on a background thread.
+     */
+    public void prefetch() {
+        this.lvls.run();
+    }
+
+    /**
+     * @return true if this level-set's levels were read already.
+     */
+    public boolean isLoaded() {
+        return this.lvls.isDone();
     }
 
     /**
@@ -77,7 +131,7 @@ public class LevelSet {
      * @param l this level-set's new level list.
      */
     public void setLvls(List<LevelInformation> l) {
-        this.lvls = l;
+        this.lvls = done(l);
     }
 
     /**
@@ -86,4 +140,14 @@ public class LevelSet {
     public String toString() {
         return this.key + " " + this.desc;
     }
+
+    /**
+     * @param l a list of levels.
+     * @return a task that's already done, its result being 'l'.
+     */
+    private static FutureTask<List<LevelInformation>> done(List<LevelInformation> l) {
+        FutureTask<List<LevelInformation>> task = new FutureTask<>(() -> l);
+        task.run();
+        return task;
+    }
 }
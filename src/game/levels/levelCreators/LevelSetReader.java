@@ -1,14 +1,20 @@
 package game.levels.levelCreators;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
 
 import game.levels.LevelInformation;
+import game.misc.AtomicFiles;
+import game.misc.Resources;
 import game.misc.Tuple;
 
 /**
@@ -17,9 +23,13 @@ import game.misc.Tuple;
  */
 public class LevelSetReader {
 
+    // where compiled level sets are kept
+    private static final File CACHE_DIRECTORY = new File("level_cache");
+
     /**
      * Gets a reader that is a level-set.txt reader, and build a
-     * list of levels from its description.
+     * list of levels from its description. Only the level-sets' keys and
+     * names are read - their levels are read when they're first asked for.
      * @param reader the level-set reader.
      * @return a list of levels created from the description from
      * 'reader'.
@@ -44,11 +54,9 @@ public class LevelSetReader {
                 } else {
 
                     // if the line number is even, it contains the path to the
-                    // level-specification-reader file.
-                    InputStreamReader r =
-                                new InputStreamReader(ClassLoader.getSystemClassLoader().getResourceAsStream(line));
-                    List<LevelInformation> l = LevelSpecificationReader.fromReader(r);
-                    LevelSet s = new LevelSet(key, levelName, l);
+                    // level-specification-reader file, which is only read
+                    // when the level-set's levels are first asked for.
+                    LevelSet s = new LevelSet(key, levelName, line);
                     finishedLevelSets.add(s);
 
                     key = "";
@@ -74,5 +82,60 @@ public class LevelSetReader {
         }
         return finishedLevelSets;
     }
-}
 
+    /**
+     * Reads a level set's levels. If the level set was compiled from the same
+     * files before, the compiled levels are read instead of parsing the files;
+     * otherwise the files are parsed, and the levels are compiled for next time.
+     * @param path the resource path of the level set's level definitions.
+     * @return the level set's levels.
+     */
+    public static List<LevelInformation> readLevels(String path) {
+        File compiled = compiledFile(path);
+        byte[] hash = null;
+        try {
+            hash = LevelCompiler.sourceHash(path);
+            if (compiled.isFile()) {
+                try (InputStream in = new BufferedInputStream(new FileInputStream(compiled))) {
+                    List<LevelInformation> levels = CompiledLevelLoader.load(in, hash);
+                    if (levels != null) {
+                        return levels;
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("failed to read " + compiled + ", reading " + path + " instead: " + e);
+        }
+
+        InputStreamReader r = new InputStreamReader(Resources.open(path));
+        List<LevelInformation> levels = LevelSpecificationReader.fromReader(r);
+        if (hash != null) {
+            try {
+                writeCompiled(levels, hash, compiled);
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("failed to compile " + path + ": " + e);
+            }
+        }
+        return levels;
+    }
+
+    /**
+     * Compiles levels into a file. The file is replaced whole (see
+     * AtomicFiles), so a half-written file is never read.
+     * @param levels the levels.
+     * @param hash the hash of the files they were read from.
+     * @param compiled the file to write.
+     * @throws IOException if the file couldn't be written.
+     */
+    private static void writeCompiled(List<LevelInformation> levels, byte[] hash, File compiled) throws IOException {
+        AtomicFiles.replace(compiled, out -> LevelCompiler.compile(levels, hash, out));
+    }
+
+    /**
+     * @param path the resource path of a level set's level definitions.
+     * @return the file the level set is compiled into.
+     */
+    public static File compiledFile(String path) {
+        return new File(CACHE_DIRECTORY, path.replaceAll("[^\\w.-]", "_") + ".bin");
+    }
+}
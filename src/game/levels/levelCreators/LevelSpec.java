@@ -0,0 +1,123 @@
+package game.levels.levelCreators;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Yuval Ezra.
+ * A single level of a level definitions file, as it's written: its
+ * properties and the rows of its blocks, with where each one is in the file.
+ */
+class LevelSpec {
+    private int line;
+    private Map<String, String> properties;
+    private Map<String, int[]> positions;
+    private List<String> rows;
+    private List<Integer> rowLines;
+
+    /**
+     * A constructor for an empty LevelSpec.
+     * @param line the line of its START_LEVEL.
+     */
+    LevelSpec(int line) {
+        this.line = line;
+        this.properties = new HashMap<>();
+        this.positions = new HashMap<>();
+        this.rows = new ArrayList<>();
+        this.rowLines = new ArrayList<>();
+    }
+
+    /**
+     * Sets a property. A property that was already set is replaced.
+     * @param key the property's name.
+     * @param value the property's value.
+     * @param line the line of the value.
+     * @param column the column of the value.
+     */
+    void put(String key, String value, int line, int column) {
+        this.properties.put(key, value);
+        this.positions.put(key, new int[] {line, column});
+    }
+
+    /**
+     * Adds a row of blocks.
+     * @param row the row's symbols.
+     * @param line the row's line.
+     */
+    void addRow(String row, int line) {
+        this.rows.add(row);
+        this.rowLines.add(line);
+    }
+
+    /**
+     * @param key a property's name.
+     * @return the property's value, or null if it wasn't set.
+     */
+    String get(String key) {
+        return this.properties.get(key);
+    }
+
+    /**
+     * @param key a property's name.
+     * @return the property's value as an int.
+     * @throws LevelFormatException if it wasn't set or isn't an int.
+     */
+    int getInt(String key) {
+        String value = this.require(key);
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw this.error(key, key + " should be a whole number, not '" + value + "'");
+        }
+    }
+
+    /**
+     * @param key a property's name.
+     * @return the property's value.
+     * @throws LevelFormatException if it wasn't set.
+     */
+    String require(String key) {
+        String value = this.properties.get(key);
+        if (value == null) {
+            throw new LevelFormatException("the level has no " + key, this.line, 1);
+        }
+        return value;
+    }
+
+    /**
+     * @param key a property's name.
+     * @param message what's wrong with it.
+     * @return an error pointing at the property's value, or at the level if it wasn't set.
+     */
+    LevelFormatException error(String key, String message) {
+        int[] position = this.positions.get(key);
+        if (position == null) {
+            return new LevelFormatException(message, this.line, 1);
+        }
+        return new LevelFormatException(message, position[0], position[1]);
+    }
+
+    /**
+     * @return the rows of blocks, from top to bottom.
+     */
+    List<String> getRows() {
+        return this.rows;
+    }
+
+    /**
+     * @param i a row's index.
+     * @return the row's line.
+     */
+    int getRowLine(int i) {
+        return this.rowLines.get(i);
+    }
+
+    /**
+     * @return the line of the level's START_LEVEL.
+     */
+    int getLine() {
+        return this.line;
+    }
+}
@@ -3,20 +3,15 @@ package game.levels.levelCreators;
 import java.awt.Color;
 import java.awt.Image;
 import java.io.BufferedReader;
-import java.io.EOFException;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import javax.imageio.ImageIO;
-
 import game.levels.LevelInformation;
-import game.levels.blockCreators.BlocksDefinitionReader;
+import game.levels.blockCreators.BlocksDefinitionCache;
 import game.levels.blockCreators.BlocksFromSymbolsFactory;
 import game.misc.Fill;
 import game.misc.Tuple;
@@ -25,95 +20,130 @@ import game.objects.ball.Velocity;
 
 /**
  * @author Yuval Ezra.
- * A level-specification-reader.
+ * A level-specification-reader. It reads a level definitions file line by
+ * line, in a single pass, creating each level as soon as its END_LEVEL is read.
  */
 public class LevelSpecificationReader {
 
+    private static final Pattern COLOR = Pattern.compile("(?<=color\\()[^\\s]*(?=\\))");
+    private static final String RGB_ISH = "(0|1[0-9][0-9])|(2[0-4][0-9])|(25[0-5])|([0-9][0-9])";
+    private static final Pattern RGB = Pattern.compile("RGB\\(" + RGB_ISH + "," + RGB_ISH + "," + RGB_ISH + "\\)");
+    private static final Pattern RGB_VALUE = Pattern.compile(RGB_ISH);
+    private static final Pattern COLOR_NAME = Pattern.compile("(?<=color\\()\\w*(?=\\))");
+    private static final Pattern IMAGE = Pattern.compile("(?<=image\\().*(?=\\))");
+
     /**
      * Gets a Reader, and returns a new List of LevelInformations specified in 'reader'.
      * @param reader the Reader specifying what LevelInformations to create.
      * @return a list of LevelInformations created by the instructioons in 'reader'.
+     * @throws LevelFormatException if a level is missing properties or has wrong ones.
      */
     public static List<LevelInformation> fromReader(Reader reader) {
-        List<LevelInformation> finishedLevels = new LinkedList<>();
-
-        // splitting the file into levels
-        List<String> levels = levelSplit(reader);
-
-        // creating each level seperately
-        for (String level : levels) {
-            LevelInformation levelInfo = createLevel(level);
-            if (levelInfo != null) {
-                finishedLevels.add(levelInfo);
-            }
-        }
-        return finishedLevels;
-    }
-
-    /**
-     * Makes a file a 1-liner File, with each line being split by a 'space'.
-     * @param reader the File's Reader.
-     * @return a new 1-line String representing the File which
-     * reader was its Reader.
-     */
-    public static String makeOneLine(Reader reader) {
+        List<LevelInformation> finishedLevels = new ArrayList<>();
         BufferedReader r = new BufferedReader(reader);
-        String file = "";
-        String line;
-        try {
-            line = r.readLine();
 
-            // # lines should be ignored - they are comments
+        // the level being read, and whether its blocks are being read
+        LevelSpec level = null;
+        boolean inBlocks = false;
+        int lineNumber = 0;
+        try {
+            String line = r.readLine();
             while (line != null) {
+                lineNumber++;
+
+                // # lines should be ignored - they are comments
                 if (line.length() > 0 && line.charAt(0) != '#') {
-                    file += line + " ";
+                    String keyword = line.trim();
+                    if (level == null) {
+
+                        // anything outside of a level is ignored
+                        if (keyword.equals("START_LEVEL")) {
+                            level = new LevelSpec(lineNumber);
+                        }
+                    } else if (inBlocks) {
+                        if (keyword.equals("END_BLOCKS")) {
+                            inBlocks = false;
+                        } else if (keyword.equals("END_LEVEL")) {
+                            throw new LevelFormatException("END_LEVEL before END_BLOCKS", lineNumber, 1);
+                        } else {
+                            level.addRow(line, lineNumber);
+                        }
+                    } else if (keyword.equals("START_BLOCKS")) {
+                        inBlocks = true;
+                    } else if (keyword.equals("END_LEVEL")) {
+                        finishedLevels.add(createLevel(level));
+                        level = null;
+                    } else {
+                        splitIntoProperty(level, line, lineNumber);
+                    }
                 }
                 line = r.readLine();
             }
-        } catch (EOFException e) {
-            System.out.println("Empty hi");
         } catch (IOException e) {
+            System.out.println("failed to read line " + (lineNumber + 1));
             e.printStackTrace();
         } finally {
             try {
                 r.close();
             } catch (IOException e) {
-                // TODO Auto-generated catch block
                 e.printStackTrace();
             }
         }
-        return file;
+        if (level != null) {
+            throw new LevelFormatException("START_LEVEL without END_LEVEL", level.getLine(), 1);
+        }
+        return finishedLevels;
     }
 
     /**
-     * Splits the one-lined File string into levels.
-     * @param reader the Reader of the File containing level-descriptions.
-     * @return a List containing all levels in the File (each in its own place in the List).
+     * Splits a line of a:b c:d ... into its properties, and adds them to a
+     * level. A property ends where a space and another property's name start.
+     * @param level the level to add the properties to.
+     * @param line the line.
+     * @param lineNumber the line's number in the file.
      */
-    public static List<String> levelSplit(Reader reader) {
-        List<String> levels = new LinkedList<>();
-        String file = makeOneLine(reader);
-        Pattern pat = Pattern.compile("START_LEVEL.*?END_LEVEL");
-        Matcher matcher = pat.matcher(file);
-        while (matcher.find()) {
-            levels.add(file.substring(matcher.start(), matcher.end()));
+    private static void splitIntoProperty(LevelSpec level, String line, int lineNumber) {
+        String key = null;
+        int valueStart = 0;
+        int i = 0;
+        while (i < line.length()) {
+
+            // a property's name is a run of word characters and '-', followed by ':'
+            int j = i;
+            while (j < line.length() && (Character.isLetterOrDigit(line.charAt(j))
+                    || line.charAt(j) == '_' || line.charAt(j) == '-')) {
+                j++;
+            }
+            if (j > i && j < line.length() && line.charAt(j) == ':') {
+                if (key != null) {
+                    level.put(key, stripEnd(line.substring(valueStart, i - 1)), lineNumber, valueStart + 1);
+                }
+                key = line.substring(i, j);
+                valueStart = j + 1;
+            }
+
+            // moving on to the next word
+            i = line.indexOf(' ', j);
+            if (i < 0) {
+                break;
+            }
+            i++;
+        }
+        if (key != null) {
+            level.put(key, stripEnd(line.substring(valueStart)), lineNumber, valueStart + 1);
         }
-        return levels;
     }
 
     /**
-     * Splits a line of a:b c:d ... into a list [a:b, c:d,...]
-     * @param level a:b c:d ...
-     * @return a list [a:b, c:d,...]
+     * @param s a String.
+     * @return 's' without the whitespace at its end.
      */
-    public static List<String> splitIntoProperty(String level) {
-        List<String> properties = new LinkedList<>();
-        Pattern pat = Pattern.compile("((\\w|-)*:.*?(?= [\\w-]+:))|((\\w|-)*:.*?(?= START_BLOCKS))");
-        Matcher matcher = pat.matcher(level);
-        while (matcher.find()) {
-            properties.add(level.substring(matcher.start(), matcher.end()));
+    private static String stripEnd(String s) {
+        int end = s.length();
+        while (end > 0 && Character.isWhitespace(s.charAt(end - 1))) {
+            end--;
         }
-        return properties;
+        return s.substring(0, end);
     }
 
     /**
@@ -123,17 +153,10 @@ public class LevelSpecificationReader {
      */
     public static Tuple<String, String> splitProp(String property) {
         Tuple<String, String> t = new Tuple<>();
-
-        // split the property
-        Pattern pat = Pattern.compile(".*(?=:)");
-        Matcher matcher = pat.matcher(property);
-        if (matcher.find()) {
-            t.setLeft(property.substring(matcher.start(), matcher.end()));
-        }
-        pat = Pattern.compile("(?<=:).*");
-        matcher = pat.matcher(property);
-        if (matcher.find()) {
-            t.setRight(property.substring(matcher.start(), matcher.end()));
+        int first = property.indexOf(':');
+        if (first >= 0) {
+            t.setLeft(property.substring(0, property.lastIndexOf(':')));
+            t.setRight(property.substring(first + 1));
         }
         return t;
     }
@@ -143,37 +166,17 @@ public class LevelSpecificationReader {
      * Velocities.
      * @param right the angle_1,speed_1 angle_2,speed_2 ... part.
      * @return a new List of velocities made according to 'right'.
+     * @throws NumberFormatException if an angle or a speed isn't a whole number.
      */
     public static List<Velocity> makeVelocities(String right) {
         List<Velocity> ballVelocities = new ArrayList<>();
-
-        List<String> velocities = new ArrayList<>();
-        Pattern pat = Pattern.compile("[^\\s]*,[^\\s]*");
-        Matcher matcher = pat.matcher(right);
-        while (matcher.find()) {
-            velocities.add(right.substring(matcher.start(),
-                                           matcher.end()));
-        }
-
-        // for each velocity we found, turn it into a Velocity object
-        for (String v : velocities) {
-            int angle = 0;
-            int speed = -1;
-            // look for the angle
-            pat = Pattern.compile(".*(?=,)");
-            matcher = pat.matcher(v);
-            if (matcher.find()) {
-                angle = Integer.parseInt(v.substring(matcher.start(),
-                        matcher.end()));
-            }
-
-            // look for the speed
-            pat = Pattern.compile("(?<=,).*");
-            matcher = pat.matcher(v);
-            if (matcher.find()) {
-                speed = Integer.parseInt(v.substring(matcher.start(),
-                        matcher.end()));
+        for (String v : right.trim().split("\\s+")) {
+            int comma = v.indexOf(',');
+            if (comma < 0) {
+                continue;
             }
+            int angle = comma == 0 ? 0 : Integer.parseInt(v.substring(0, comma));
+            int speed = comma == v.length() - 1 ? -1 : Integer.parseInt(v.substring(comma + 1));
             ballVelocities.add(Velocity.fromAngleAndSpeed(angle, speed));
         }
         return ballVelocities;
@@ -181,110 +184,75 @@ public class LevelSpecificationReader {
 
     /**
      * Creates a LevelInformation level.
-     * @param level the level's String representation.
+     * @param level the level's properties and rows of blocks.
      * @return a new LevelInformation created from 'level'.
+     * @throws LevelFormatException if the level is missing properties or has wrong ones.
      */
-    public static LevelInformation createLevel(String level) {
+    private static LevelInformation createLevel(LevelSpec level) {
+        String levelName = level.require("level_name");
+        if (levelName.length() == 0) {
+            throw level.error("level_name", "the level's name is empty");
+        }
 
-        // initializing levelInformation properties
-        String levelName = "";
         List<Velocity> ballVelocities = new ArrayList<>();
-        Fill background = null;
-        int paddleSpeed = -1;
-        int paddleWidth = -1;
-        String blockDefinitions = "";
-        int blocksStartX = -1;
-        int blocksStartY = -1;
-        int rowHeight = -1;
-        int numBlocks = -1;
-
-        List<String> props = splitIntoProperty(level);
-        for (String prop : props) {
-
-            // split the property
-            Tuple<String, String> split = splitProp(prop);
-            String left = split.getLeft();
-            String right = split.getRight();
-
-            // check what each property is
-            switch (left) {
-                case "level_name":
-                    levelName = right;
-                    break;
-
-                case "ball_velocities":
-                    ballVelocities = makeVelocities(right);
-                    break;
-
-                case "background":
-                    if (right != null) {
-                        background = splitBackground(right);
-                    }
-                    break;
-
-                case "paddle_speed":
-                    paddleSpeed = Integer.parseInt(right);
-                    break;
-
-                case "paddle_width":
-                    paddleWidth = Integer.parseInt(right);
-                    break;
-
-                case "block_definitions":
-                    blockDefinitions = right;
-                    break;
-
-                case "blocks_start_x":
-                    blocksStartX = Integer.parseInt(right);
-                    break;
-
-                case "blocks_start_y":
-                    blocksStartY = Integer.parseInt(right);
-                    break;
-
-                case "row_height":
-                    rowHeight = Integer.parseInt(right);
-                    break;
-
-                case "num_blocks":
-                    numBlocks = Integer.parseInt(right);
-                    break;
-
-                default:
-                    break;
+        if (level.get("ball_velocities") != null) {
+            try {
+                ballVelocities = makeVelocities(level.get("ball_velocities"));
+            } catch (NumberFormatException e) {
+                throw level.error("ball_velocities", "ball velocities should be angle,speed pairs of whole numbers");
             }
         }
 
-        // if the data was insufficient
-        if (levelName.length() == 0 || background == null
-            || (background.getColor() == null && background.getImage() == null)
-            || paddleSpeed < 0 || paddleWidth < 0 || rowHeight < 0 || numBlocks < 0 || blockDefinitions.length() == 0) {
-            throw new RuntimeException("Incorrect data");
+        Fill background = splitBackground(level.require("background"));
+        if (background == null || (background.getColor() == null && background.getImage() == null)) {
+            throw level.error("background", "unknown background '" + level.get("background") + "'");
         }
 
-        // creating the blocks list
-        String blockSymbols = splitBlockPart(level);
-        BlocksFromSymbolsFactory bReader = null;
-        InputStreamReader levelRead =
-                new InputStreamReader(ClassLoader.getSystemClassLoader().getResourceAsStream(blockDefinitions));
-        bReader = BlocksDefinitionReader.fromReader(levelRead);
+        int paddleSpeed = nonNegative(level, "paddle_speed");
+        int paddleWidth = nonNegative(level, "paddle_width");
+        int rowHeight = nonNegative(level, "row_height");
+        nonNegative(level, "num_blocks");
+        int blocksStartX = level.get("blocks_start_x") == null ? -1 : level.getInt("blocks_start_x");
+        int blocksStartY = level.get("blocks_start_y") == null ? -1 : level.getInt("blocks_start_y");
 
-        List<Block> blocks = new ArrayList<>();
+        String blockDefinitions = level.require("block_definitions");
+        // levels that use the same block definitions share them, parsed once
+        BlocksFromSymbolsFactory bReader;
+        try {
+            bReader = BlocksDefinitionCache.get(blockDefinitions);
+        } catch (IOException e) {
+            throw level.error("block_definitions", "couldn't read '" + blockDefinitions + "': " + e.getMessage());
+        }
+        if (bReader == null) {
+            throw level.error("block_definitions", "no such block definitions file '" + blockDefinitions + "'");
+        }
 
+        // creating the blocks list - every row (and every space in a row) moves down a row
+        List<Block> blocks = new ArrayList<>();
         int curX = blocksStartX;
         int curY = blocksStartY;
-
-        for (int i = 0; i < blockSymbols.length(); i++) {
-            String curSymbol = Character.toString(blockSymbols.charAt(i));
-            if (curSymbol.equals(" ")) {
+        List<String> rows = level.getRows();
+        for (int row = 0; row < rows.size(); row++) {
+            if (row > 0) {
                 curX = blocksStartX;
                 curY += rowHeight;
-            } else if (bReader.isBlockSymbol(curSymbol)) {
-                Block b = (bReader.getBlock(curSymbol, curX, curY));
-                blocks.add(b);
-                curX += b.getWidth();
-            } else if (bReader.isSpaceSymbol(curSymbol)) {
-                curX += bReader.getSpaceWidth(curSymbol);
+            }
+            String symbols = rows.get(row);
+            for (int i = 0; i < symbols.length(); i++) {
+                String curSymbol = Character.toString(symbols.charAt(i));
+                if (curSymbol.equals(" ")) {
+                    curX = blocksStartX;
+                    curY += rowHeight;
+                } else if (bReader.isBlockSymbol(curSymbol)) {
+                    Block b = (bReader.getBlock(curSymbol, curX, curY));
+                    blocks.add(b);
+                    curX += b.getWidth();
+                } else if (bReader.isSpaceSymbol(curSymbol)) {
+                    curX += bReader.getSpaceWidth(curSymbol);
+                } else {
+                    throw new LevelFormatException("unknown block symbol '" + curSymbol + "'",
+                                                   level.getRowLine(row), i + 1);
+                }
             }
         }
         int wid = 800, len = 600;
@@ -295,18 +263,17 @@ public class LevelSpecificationReader {
     }
 
     /**
-     * Splits the part between START_BLOCKS and END_BLOCKS (not including) in 'level'.
-     * @param level the level-description File string given.
-     * @return the part between START_BLOCKS and END_BLOCKS in 'level'.
+     * @param level a level.
+     * @param key the name of one of its properties.
+     * @return the property's value as an int.
+     * @throws LevelFormatException if it wasn't set, or isn't a non-negative int.
      */
-    public static String splitBlockPart(String level) {
-        String blocks = "";
-        Pattern pat = Pattern.compile("(?<=START_BLOCKS ).*(?= END_BLOCKS)");
-        Matcher matcher = pat.matcher(level);
-        if (matcher.find()) {
-            blocks = level.substring(matcher.start(), matcher.end());
+    private static int nonNegative(LevelSpec level, String key) {
+        int value = level.getInt(key);
+        if (value < 0) {
+            throw level.error(key, key + " can't be negative");
         }
-        return blocks;
+        return value;
     }
 
     /**
@@ -315,8 +282,7 @@ public class LevelSpecificationReader {
      * @return the newely created Fill.
      */
     public static Fill splitBackground(String background) {
-        Pattern pat = Pattern.compile("(?<=color\\()[^\\s]*(?=\\))");
-        Matcher matcher = pat.matcher(background);
+        Matcher matcher = COLOR.matcher(background);
 
         // if it's a colour
         if (matcher.find()) {
@@ -324,16 +290,13 @@ public class LevelSpecificationReader {
                     matcher.end());
 
             // if it's an rgb - (
-            String rgbIsh = "(0|1[0-9][0-9])|(2[0-4][0-9])|(25[0-5])|([0-9][0-9])";
-            pat = Pattern.compile("RGB\\(" + rgbIsh + "," + rgbIsh + "," + rgbIsh + "\\)");
-            matcher = pat.matcher(color);
+            matcher = RGB.matcher(color);
 
             // if it's indeed an rgb, make it
             if (matcher.find()) {
 
                 List<Integer> values = new ArrayList<>();
-                pat = Pattern.compile(rgbIsh);
-                matcher = pat.matcher(color);
+                matcher = RGB_VALUE.matcher(color);
 
                 // add the rgb values, create a colour and return a new Fill.
                 while (matcher.find()) {
@@ -345,8 +308,7 @@ public class LevelSpecificationReader {
                 return f;
 
             } else {
-                pat = Pattern.compile("(?<=color\\()\\w*(?=\\))");
-                matcher = pat.matcher(background);
+                matcher = COLOR_NAME.matcher(background);
 
                 // if it's a normal colour
                 if (matcher.find()) {
@@ -361,8 +323,7 @@ public class LevelSpecificationReader {
             // it's a fake.
             return null;
         } else {
-            pat = Pattern.compile("(?<=image\\().*(?=\\))");
-            matcher = pat.matcher(background);
+            matcher = IMAGE.matcher(background);
 
             // if it's an image, add it to Fill and return.
             if (matcher.find()) {
@@ -370,8 +331,9 @@ public class LevelSpecificationReader {
                         matcher.end());
                 Image image;
                 try {
-                    image = ImageIO.read(ClassLoader.getSystemClassLoader().getResourceAsStream(imagePath));
-                    Fill f = new Fill(image);
+                    // usually already decoded by the AssetLoader's threads
+                    image = AssetLoader.getInstance().get(imagePath);
+                    Fill f = new Fill(image, imagePath);
                     return f;
                 } catch (IOException e) {
                     System.out.println("Couldn't open image " + imagePath);
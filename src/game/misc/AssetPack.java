@@ -0,0 +1,156 @@
+package game.misc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Yuval Ezra.
+ * All the game's resources in a single file, mapped into memory. The file
+ * starts with an index (every resource's path, offset and length) followed by
+ * the resources' bytes, one after another. A resource is served as a view of
+ * the mapped file, so nothing is copied or read until it's used.
+ * Made by game.AssetPackBuilder.
+ */
+public class AssetPack {
+
+    public static final int MAGIC = 0x41524B50;
+    public static final int VERSION = 1;
+
+    // resource path -> a read-only view of its bytes
+    private Map<String, ByteBuffer> entries;
+
+    /**
+     * A constructor for AssetPack.
+     * @param entries every resource's bytes.
+     */
+    private AssetPack(Map<String, ByteBuffer> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Maps an asset pack into memory and reads its index.
+     * @param file the pack file.
+     * @return the asset pack.
+     * @throws IOException if the file couldn't be mapped, or isn't an asset pack.
+     */
+    public static AssetPack open(File file) throws IOException {
+        ByteBuffer pack;
+
+        // the mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            pack = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asReadOnlyBuffer();
+        }
+        try {
+            if (pack.getInt() != MAGIC) {
+                throw new IOException(file + " isn't an asset pack");
+            }
+            if (pack.getInt() != VERSION) {
+                throw new IOException(file + " is of another version");
+            }
+            int count = pack.getInt();
+            Map<String, ByteBuffer> entries = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                byte[] path = new byte[pack.getShort() & 0xFFFF];
+                pack.get(path);
+                int offset = pack.getInt();
+                int length = pack.getInt();
+                if (offset < 0 || length < 0 || offset > pack.capacity() - length) {
+                    throw new IOException(file + " is corrupt");
+                }
+                ByteBuffer entry = pack.duplicate();
+                entry.position(offset).limit(offset + length);
+                entries.put(new String(path, StandardCharsets.UTF_8), entry.slice());
+            }
+            return new AssetPack(entries);
+        } catch (RuntimeException e) {
+            throw new IOException(file + " is corrupt", e);
+        }
+    }
+
+    /**
+     * @param path a resource's path, relative to the resources directory.
+     * @return true if the resource is in the pack.
+     */
+    public boolean contains(String path) {
+        return this.entries.containsKey(path);
+    }
+
+    /**
+     * @param path a resource's path, relative to the resources directory.
+     * @return a read-only view of the resource's bytes, or null if it isn't in
+     * the pack. Every call returns a new view, so it can be read on any thread.
+     */
+    public ByteBuffer get(String path) {
+        ByteBuffer entry = this.entries.get(path);
+        return entry == null ? null : entry.duplicate();
+    }
+
+    /**
+     * @param path a resource's path, relative to the resources directory.
+     * @return a stream of the resource's bytes, or null if it isn't in the pack.
+     */
+    public InputStream open(String path) {
+        ByteBuffer entry = this.get(path);
+        return entry == null ? null : new BufferStream(entry);
+    }
+
+    /**
+     * @return the number of resources in the pack.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * @author Yuval Ezra.
+     * An InputStream that reads a ByteBuffer.
+     */
+    private static class BufferStream extends InputStream {
+        private ByteBuffer buffer;
+
+        /**
+         * A constructor for BufferStream.
+         * @param buffer the bytes to read, from its position to its limit.
+         */
+        BufferStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            len = Math.min(len, this.buffer.remaining());
+            this.buffer.get(b, off, len);
+            return len;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, this.buffer.remaining()));
+            this.buffer.position(this.buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
+        }
+    }
+}
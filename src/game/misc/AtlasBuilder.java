@@ -0,0 +1,105 @@
+package game.misc;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @author Yuval Ezra.
+ * Packs scaled images into the pages of a TextureAtlas. The images are
+ * sorted by height and placed left to right in rows (shelves), a new row
+ * starting when one is full and a new page when the rows don't fit. An image
+ * larger than a page gets a page of its own.
+ */
+public class AtlasBuilder {
+
+    // the width and height of a page
+    private static final int PAGE_SIZE = 1024;
+
+    private Set<ImageKey> images;
+
+    /**
+     * A constructor for an empty AtlasBuilder.
+     */
+    public AtlasBuilder() {
+        this.images = new LinkedHashSet<>();
+    }
+
+    /**
+     * Adds an image to pack. Adding the same image at the same size again does nothing.
+     * @param source a fully loaded image.
+     * @param width the width to scale it to.
+     * @param height the height to scale it to.
+     */
+    public void add(Image source, int width, int height) {
+        this.images.add(new ImageKey(source, Math.max(1, width), Math.max(1, height), Image.SCALE_DEFAULT));
+    }
+
+    /**
+     * Scales and packs the images added.
+     * @return a TextureAtlas holding them.
+     */
+    public TextureAtlas build() {
+        List<ImageKey> sorted = new ArrayList<>(this.images);
+        sorted.sort((a, b) -> b.getHeight() - a.getHeight());
+
+        // placing the images - x, y and page of each
+        int[][] places = new int[sorted.size()][];
+        List<int[]> pageSizes = new ArrayList<>();
+        int x = 0, y = 0, shelfHeight = 0;
+        int page = -1;
+        for (int i = 0; i < sorted.size(); i++) {
+            ImageKey k = sorted.get(i);
+            if (k.getWidth() > PAGE_SIZE || k.getHeight() > PAGE_SIZE) {
+                pageSizes.add(new int[] {k.getWidth(), k.getHeight()});
+                places[i] = new int[] {0, 0, pageSizes.size() - 1};
+                continue;
+            }
+            if (page >= 0 && x + k.getWidth() > PAGE_SIZE) {
+                x = 0;
+                y += shelfHeight;
+                shelfHeight = 0;
+            }
+            if (page < 0 || y + k.getHeight() > PAGE_SIZE) {
+                pageSizes.add(new int[] {0, 0});
+                page = pageSizes.size() - 1;
+                x = 0;
+                y = 0;
+                shelfHeight = 0;
+            }
+            places[i] = new int[] {x, y, page};
+            int[] size = pageSizes.get(page);
+            size[0] = Math.max(size[0], x + k.getWidth());
+            size[1] = Math.max(size[1], y + k.getHeight());
+            x += k.getWidth();
+            shelfHeight = Math.max(shelfHeight, k.getHeight());
+        }
+
+        // drawing the pages - each only as large as what's on it
+        List<BufferedImage> pages = new ArrayList<>(pageSizes.size());
+        List<Graphics2D> graphics = new ArrayList<>(pageSizes.size());
+        for (int[] size : pageSizes) {
+            BufferedImage p = ImageCache.createImage(size[0], size[1]);
+            pages.add(p);
+            graphics.add(p.createGraphics());
+        }
+        Map<ImageKey, Image> regions = new HashMap<>();
+        for (int i = 0; i < sorted.size(); i++) {
+            ImageKey k = sorted.get(i);
+            int[] place = places[i];
+            ImageCache.drawScaled(graphics.get(place[2]), k.getSource(), place[0], place[1],
+                                  k.getWidth(), k.getHeight(), k.getHint());
+            regions.put(k, pages.get(place[2]).getSubimage(place[0], place[1], k.getWidth(), k.getHeight()));
+        }
+        for (Graphics2D g : graphics) {
+            g.dispose();
+        }
+        return new TextureAtlas(regions, pages.size());
+    }
+}
@@ -0,0 +1,97 @@
+package game.misc;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author Yuval Ezra.
+ * Replaces files whole, so after a crash a file has either its old contents
+ * or the new ones, never a part of them. The new contents are written under
+ * another name in the same directory and synced to the disk first, then
+ * renamed over the file.
+ */
+public final class AtomicFiles {
+
+    /**
+     * Not to be instantiated.
+     */
+    private AtomicFiles() {
+    }
+
+    /**
+     * @author Yuval Ezra.
+     * Writes a file's new contents.
+     */
+    public interface Contents {
+
+        /**
+         * Writes the contents.
+         * @param out the stream to write them to. It's flushed and closed
+         * afterwards, so it must not be closed here.
+         * @throws IOException if they couldn't be written.
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Replaces a file's contents.
+     * @param file the file.
+     * @param contents the new contents.
+     * @throws IOException if the file couldn't be written.
+     */
+    public static void replace(File file, byte[] contents) throws IOException {
+        replace(file, out -> out.write(contents));
+    }
+
+    /**
+     * Replaces a file's contents, creating its directory if needed.
+     * @param file the file.
+     * @param contents writes the new contents.
+     * @throws IOException if the file couldn't be written.
+     */
+    public static void replace(File file, Contents contents) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Couldn't create " + directory);
+        }
+        File temp = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            try (FileOutputStream fileOut = new FileOutputStream(temp)) {
+                OutputStream out = new BufferedOutputStream(fileOut);
+                contents.writeTo(out);
+                out.flush();
+                fileOut.getFD().sync();
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            syncDirectory(directory);
+        } finally {
+            temp.delete();
+        }
+    }
+
+    /**
+     * Syncs a directory to the disk, so a file renamed in it stays renamed
+     * after a crash. Not every system can open a directory, so this is only
+     * tried.
+     * @param directory the directory.
+     */
+    private static void syncDirectory(File directory) {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            return;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package game.misc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import javax.imageio.stream.ImageInputStreamImpl;
+
+/**
+ * @author Yuval Ezra.
+ * An ImageInputStream that reads a ByteBuffer in place. Unlike a stream made
+ * by ImageIO for an InputStream, it can seek without caching what it read in
+ * a temporary file or in memory.
+ */
+class BufferImageInputStream extends ImageInputStreamImpl {
+    private ByteBuffer buffer;
+
+    /**
+     * A constructor for BufferImageInputStream.
+     * @param buffer the bytes to read, from its position to its limit.
+     */
+    BufferImageInputStream(ByteBuffer buffer) {
+        this.buffer = buffer.slice();
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkClosed();
+        if (this.streamPos >= this.buffer.limit()) {
+            return -1;
+        }
+        this.bitOffset = 0;
+        return this.buffer.get((int) this.streamPos++) & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkClosed();
+        if (len == 0) {
+            return 0;
+        }
+        if (this.streamPos >= this.buffer.limit()) {
+            return -1;
+        }
+        this.bitOffset = 0;
+        len = (int) Math.min(len, this.buffer.limit() - this.streamPos);
+        ByteBuffer view = this.buffer.duplicate();
+        view.position((int) this.streamPos);
+        view.get(b, off, len);
+        this.streamPos += len;
+        return len;
+    }
+
+    @Override
+    public long length() {
+        return this.buffer.limit();
+    }
+}
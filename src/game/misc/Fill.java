@@ -11,13 +11,26 @@ public class Fill {
     private Image image;
     private Color color;
 
+    // the resource path the image was read from, if it's known
+    private String imagePath;
+
     /**
      * A constructor for Fill.
      * @param image an Image that is the 'fill'.
      */
     public Fill(Image image) {
+        this(image, null);
+    }
+
+    /**
+     * A constructor for Fill, of an image read from a resource.
+     * @param image an Image that is the 'fill'.
+     * @param imagePath the resource path 'image' was read from, or null if unknown.
+     */
+    public Fill(Image image, String imagePath) {
         this.image = image;
         this.color = null;
+        this.imagePath = imagePath;
     }
 
     /**
@@ -27,6 +40,7 @@ public class Fill {
     public Fill(Color color) {
         this.color = color;
         this.image = null;
+        this.imagePath = null;
     }
 
     /**
@@ -36,6 +50,14 @@ public class Fill {
         return this.image;
     }
 
+    /**
+     * @return the resource path this Image was read from, or null if it's
+     * not an image or the path is unknown. The Image may have been scaled since.
+     */
+    public String getImagePath() {
+        return this.imagePath;
+    }
+
     /**
      * @return this Color.
      */
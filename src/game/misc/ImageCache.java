@@ -0,0 +1,169 @@
+package game.misc;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author Yuval Ezra.
+ * A process-wide cache of scaled images, so every Block and background that
+ * shows the same image at the same size shares a single copy of it, scaled
+ * once. The copies are scaled right away (unlike Image.getScaledInstance())
+ * into images that are fast to draw on the screen. When the copies take more
+ * than a set amount of memory, the least recently used ones are dropped.
+ */
+public final class ImageCache {
+
+    // the most bytes of scaled images kept
+    private static final long MAX_BYTES = 64L * 1024 * 1024;
+
+    // least recently used first
+    private static final Map<ImageKey, BufferedImage> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+    private static long bytes = 0;
+    private static int hits = 0;
+    private static int misses = 0;
+
+    /**
+     * Not to be instantiated.
+     */
+    private ImageCache() {
+    }
+
+    /**
+     * @param source a fully loaded image.
+     * @param width the width to scale to.
+     * @param height the height to scale to.
+     * @param hint how to scale, one of Image's SCALE_ constants.
+     * @return 'source' scaled to width x height. The same image is returned
+     * for the same arguments, so it must not be drawn on.
+     */
+    public static synchronized Image scaled(Image source, int width, int height, int hint) {
+        width = Math.max(1, width);
+        height = Math.max(1, height);
+        if (source instanceof BufferedImage && source.getWidth(null) == width
+                && source.getHeight(null) == height) {
+            return source;
+        }
+
+        ImageKey key = new ImageKey(source, width, height, hint);
+        BufferedImage image = CACHE.get(key);
+        if (image != null) {
+            hits++;
+            return image;
+        }
+        misses++;
+        image = scale(source, width, height, hint);
+        CACHE.put(key, image);
+        bytes += size(image);
+
+        // dropping the least recently used images, but never the new one
+        Iterator<BufferedImage> it = CACHE.values().iterator();
+        while (bytes > MAX_BYTES && CACHE.size() > 1) {
+            bytes -= size(it.next());
+            it.remove();
+        }
+        return image;
+    }
+
+    /**
+     * @param source a fully loaded image.
+     * @param width the width to scale to.
+     * @param height the height to scale to.
+     * @return 'source' scaled to width x height, the default way.
+     */
+    public static Image scaled(Image source, int width, int height) {
+        return scaled(source, width, height, Image.SCALE_DEFAULT);
+    }
+
+    /**
+     * @return the number of images that were found in the cache.
+     */
+    public static synchronized int getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of images that had to be scaled.
+     */
+    public static synchronized int getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the number of bytes the cached images take.
+     */
+    public static synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Drops all the cached images.
+     */
+    public static synchronized void clear() {
+        CACHE.clear();
+        bytes = 0;
+    }
+
+    /**
+     * @param source a fully loaded image.
+     * @param width the width to scale to.
+     * @param height the height to scale to.
+     * @param hint how to scale, one of Image's SCALE_ constants.
+     * @return a new image of 'source' scaled to width x height.
+     */
+    private static BufferedImage scale(Image source, int width, int height, int hint) {
+        BufferedImage image = createImage(width, height);
+        Graphics2D g = image.createGraphics();
+        drawScaled(g, source, 0, 0, width, height, hint);
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * @param width the image's width.
+     * @param height the image's height.
+     * @return a new transparent image that's fast to draw on the screen.
+     */
+    static BufferedImage createImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+
+    /**
+     * Draws 'source' scaled to width x height at (x, y).
+     * @param g the Graphics2D to draw with.
+     * @param source a fully loaded image.
+     * @param x the left side to draw at.
+     * @param y the top side to draw at.
+     * @param width the width to scale to.
+     * @param height the height to scale to.
+     * @param hint how to scale, one of Image's SCALE_ constants.
+     */
+    static void drawScaled(Graphics2D g, Image source, int x, int y, int width, int height, int hint) {
+
+        // SCALE_DEFAULT, SCALE_FAST and SCALE_REPLICATE all replicate pixels
+        Object interpolation = RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR;
+        if ((hint & (Image.SCALE_SMOOTH | Image.SCALE_AREA_AVERAGING)) != 0) {
+            interpolation = RenderingHints.VALUE_INTERPOLATION_BICUBIC;
+        }
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+        g.drawImage(source, x, y, width, height, null);
+    }
+
+    /**
+     * @param image an image.
+     * @return about how many bytes 'image' takes.
+     */
+    private static long size(BufferedImage image) {
+        return 4L * image.getWidth() * image.getHeight();
+    }
+}
@@ -0,0 +1,155 @@
+package game.misc;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.Polygon;
+import java.awt.image.BufferedImage;
+
+import biuoop.DrawSurface;
+
+/**
+ * @author Yuval Ezra
+ * A DrawSurface that draws on an off-screen image, so whatever's drawn on it
+ * can be drawn on the screen later as a single image.
+ */
+public class ImageDrawSurface implements DrawSurface {
+
+    private BufferedImage image;
+    private Graphics2D g;
+
+    // whether an image drawn since the last reset wasn't loaded yet, and so
+    // wasn't drawn in full
+    private boolean incomplete;
+
+    /**
+     * A constructor for an ImageDrawSurface.
+     * @param image the image to draw on.
+     */
+    public ImageDrawSurface(BufferedImage image) {
+        this.image = image;
+        this.g = image.createGraphics();
+        this.incomplete = false;
+    }
+
+    /**
+     * @return the image drawn on.
+     */
+    public BufferedImage getImage() {
+        return this.image;
+    }
+
+    /**
+     * Limits drawing to the given rectangle, until it's cleared.
+     * @param x the rectangle's left side.
+     * @param y the rectangle's top side.
+     * @param width the rectangle's width.
+     * @param height the rectangle's height.
+     */
+    public void setClip(int x, int y, int width, int height) {
+        this.g.setClip(x, y, width, height);
+    }
+
+    /**
+     * Allows drawing on the whole image again.
+     */
+    public void clearClip() {
+        this.g.setClip(null);
+    }
+
+    /**
+     * @return true if an image drawn since the last reset wasn't drawn in full,
+     * because it wasn't loaded yet.
+     */
+    public boolean isIncomplete() {
+        return this.incomplete;
+    }
+
+    /**
+     * Forgets about the images that weren't drawn in full.
+     */
+    public void resetIncomplete() {
+        this.incomplete = false;
+    }
+
+    /**
+     * Releases the resources used for drawing. The surface can't be drawn on afterwards.
+     */
+    public void dispose() {
+        this.g.dispose();
+    }
+
+    @Override
+    public void drawImage(int x, int y, Image img) {
+        if (!this.g.drawImage(img, x, y, null)) {
+            this.incomplete = true;
+        }
+    }
+
+    @Override
+    public void drawCircle(int x, int y, int r) {
+        this.g.drawOval(x - r, y - r, 2 * r, 2 * r);
+    }
+
+    @Override
+    public void drawLine(int x1, int y1, int x2, int y2) {
+        this.g.drawLine(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void drawOval(int x, int y, int w, int h) {
+        this.g.drawOval(x, y, w, h);
+    }
+
+    @Override
+    public void drawPolygon(Polygon p) {
+        this.g.drawPolygon(p);
+    }
+
+    @Override
+    public void drawRectangle(int x, int y, int w, int h) {
+        this.g.drawRect(x, y, w, h);
+    }
+
+    @Override
+    public void drawText(int x, int y, String s, int fontSize) {
+        this.g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, fontSize));
+        this.g.drawString(s, x, y);
+    }
+
+    @Override
+    public void fillCircle(int x, int y, int r) {
+        this.g.fillOval(x - r, y - r, 2 * r, 2 * r);
+    }
+
+    @Override
+    public void fillOval(int x, int y, int w, int h) {
+        this.g.fillOval(x, y, w, h);
+    }
+
+    @Override
+    public void fillPolygon(Polygon p) {
+        this.g.fillPolygon(p);
+    }
+
+    @Override
+    public void fillRectangle(int x, int y, int w, int h) {
+        this.g.fillRect(x, y, w, h);
+    }
+
+    @Override
+    public int getHeight() {
+        return this.image.getHeight();
+    }
+
+    @Override
+    public int getWidth() {
+        return this.image.getWidth();
+    }
+
+    @Override
+    public void setColor(Color c) {
+        this.g.setColor(c);
+    }
+}
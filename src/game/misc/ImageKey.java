@@ -0,0 +1,75 @@
+package game.misc;
+
+import java.awt.Image;
+
+/**
+ * @author Yuval Ezra.
+ * A scaled image's key: a source image (by identity), the size it's scaled
+ * to and how it's scaled.
+ */
+final class ImageKey {
+    private final Image source;
+    private final int width;
+    private final int height;
+    private final int hint;
+
+    /**
+     * A constructor for ImageKey.
+     * @param source the source image.
+     * @param width the width to scale to.
+     * @param height the height to scale to.
+     * @param hint how to scale, one of Image's SCALE_ constants.
+     */
+    ImageKey(Image source, int width, int height, int hint) {
+        this.source = source;
+        this.width = width;
+        this.height = height;
+        this.hint = hint;
+    }
+
+    /**
+     * @return the source image.
+     */
+    Image getSource() {
+        return this.source;
+    }
+
+    /**
+     * @return the width to scale to.
+     */
+    int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * @return the height to scale to.
+     */
+    int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * @return how to scale.
+     */
+    int getHint() {
+        return this.hint;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ImageKey)) {
+            return false;
+        }
+        ImageKey other = (ImageKey) o;
+        return this.source == other.source && this.width == other.width
+                && this.height == other.height && this.hint == other.hint;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = System.identityHashCode(this.source);
+        h = 31 * h + this.width;
+        h = 31 * h + this.height;
+        return 31 * h + this.hint;
+    }
+}
@@ -0,0 +1,122 @@
+package game.misc;
+
+import java.awt.Image;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import javax.imageio.ImageIO;
+
+/**
+ * @author Yuval Ezra.
+ * Where the game's resources (images, definitions and level sets) are read
+ * from. If there's an asset pack, resources are served from it; the ones that
+ * aren't in it are read from the class path, as before there were packs.
+ * The pack is "assets.pack" in the working directory, or the file named by
+ * the "arkanoid.pack" system property.
+ */
+public final class Resources {
+
+    public static final String PACK_PROPERTY = "arkanoid.pack";
+    private static final String DEFAULT_PACK = "assets.pack";
+
+    private static AssetPack pack = null;
+    private static boolean looked = false;
+
+    /**
+     * Not to be instantiated.
+     */
+    private Resources() {
+    }
+
+    /**
+     * @return the asset pack resources are served from, or null if there's none.
+     */
+    public static synchronized AssetPack getPack() {
+        if (!looked) {
+            looked = true;
+            File file = new File(System.getProperty(PACK_PROPERTY, DEFAULT_PACK));
+            if (file.isFile()) {
+                try {
+                    pack = AssetPack.open(file);
+                } catch (IOException e) {
+                    System.out.println("failed to open " + file + ", reading resources instead: " + e);
+                }
+            }
+        }
+        return pack;
+    }
+
+    /**
+     * @param path a resource's path, relative to the resources directory.
+     * @return a stream of the resource's bytes, or null if there's no such resource.
+     */
+    public static InputStream open(String path) {
+        AssetPack p = getPack();
+        if (p != null) {
+            InputStream in = p.open(path);
+            if (in != null) {
+                return in;
+            }
+        }
+        return ClassLoader.getSystemClassLoader().getResourceAsStream(path);
+    }
+
+    /**
+     * @param path a resource's path, relative to the resources directory.
+     * @return the resource's bytes - a view of the asset pack if it's in
+     * it - or null if there's no such resource.
+     * @throws IOException if the resource couldn't be read.
+     */
+    public static ByteBuffer read(String path) throws IOException {
+        AssetPack p = getPack();
+        if (p != null && p.contains(path)) {
+            return p.get(path);
+        }
+        InputStream in = ClassLoader.getSystemClassLoader().getResourceAsStream(path);
+        if (in == null) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read = in.read(buffer);
+            while (read >= 0) {
+                bytes.write(buffer, 0, read);
+                read = in.read(buffer);
+            }
+            return ByteBuffer.wrap(bytes.toByteArray());
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * @param path an image's path, relative to the resources directory.
+     * @return the decoded image.
+     * @throws IOException if there's no such image, or it couldn't be decoded.
+     */
+    public static Image readImage(String path) throws IOException {
+        AssetPack p = getPack();
+        Image image;
+        if (p != null && p.contains(path)) {
+            image = ImageIO.read(new BufferImageInputStream(p.get(path)));
+        } else {
+            InputStream in = ClassLoader.getSystemClassLoader().getResourceAsStream(path);
+            if (in == null) {
+                throw new IOException("No such image " + path);
+            }
+            try {
+                image = ImageIO.read(in);
+            } finally {
+                in.close();
+            }
+        }
+        if (image == null) {
+            throw new IOException("Unknown image format " + path);
+        }
+        return image;
+    }
+}
@@ -0,0 +1,50 @@
+package game.misc;
+
+import java.awt.Image;
+import java.util.Map;
+
+/**
+ * @author Yuval Ezra.
+ * Scaled images packed together into a few large images (pages). Every
+ * scaled image is a sub-image of its page, sharing the page's pixels, so
+ * drawing it draws that region of the page.
+ */
+public class TextureAtlas {
+    private Map<ImageKey, Image> regions;
+    private int pages;
+
+    /**
+     * A constructor for TextureAtlas. Made by an AtlasBuilder.
+     * @param regions the region of every scaled image.
+     * @param pages the number of pages.
+     */
+    TextureAtlas(Map<ImageKey, Image> regions, int pages) {
+        this.regions = regions;
+        this.pages = pages;
+    }
+
+    /**
+     * @param source an image that was added to the atlas.
+     * @param width the width it was scaled to.
+     * @param height the height it was scaled to.
+     * @return the region of the atlas holding 'source' scaled to width x
+     * height, or null if it wasn't added.
+     */
+    public Image getRegion(Image source, int width, int height) {
+        return this.regions.get(new ImageKey(source, width, height, Image.SCALE_DEFAULT));
+    }
+
+    /**
+     * @return the number of pages the images are packed into.
+     */
+    public int getPages() {
+        return this.pages;
+    }
+
+    /**
+     * @return the number of scaled images in the atlas.
+     */
+    public int size() {
+        return this.regions.size();
+    }
+}
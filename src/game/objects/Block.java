@@ -1,7 +1,6 @@
 package game.objects;
 
 import java.awt.Color;
-import java.awt.Image;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,16 +11,19 @@ import game.hitListeners.HitListener;
 import game.hitListeners.HitNotifier;
 import game.levels.GameLevel;
 import game.misc.Fill;
+import game.misc.ImageCache;
 import game.objects.ball.Ball;
 import game.objects.ball.Velocity;
 import game.objects.collidable.Collidable;
+import game.objects.sprite.FrozenSprite;
+import game.objects.sprite.Snapshottable;
 import game.objects.sprite.Sprite;
 
 /**
  * @author Yuval Ezra
  * A block.
  */
-public class Block implements Collidable, Sprite, HitNotifier {
+public class Block implements Collidable, Sprite, Snapshottable, HitNotifier {
 
     private Rectangle collisionRectangle;
     private List<Fill> fills;
@@ -29,6 +31,9 @@ public class Block implements Collidable, Sprite, HitNotifier {
     private int hitPoints;
     private List<HitListener> hitListeners;
 
+    // how the Block looks, until it changes
+    private Sprite snapshot;
+
     /**
      * A constructor for a Block.
      * @param collisionRectangle the Block's shape (Rectangle)
@@ -41,9 +46,9 @@ public class Block implements Collidable, Sprite, HitNotifier {
         this.fills = new ArrayList<>();
         for (Fill f : fills) {
             if (f.getImage() != null) {
-                Image im = f.getImage().getScaledInstance((int) collisionRectangle.getWidth(),
-                                                          (int) collisionRectangle.getHeight(), Image.SCALE_DEFAULT);
-                this.fills.add(new Fill(im));
+                // Blocks of the same size share the same scaled image
+                this.fills.add(new Fill(ImageCache.scaled(f.getImage(), (int) collisionRectangle.getWidth(),
+                                                          (int) collisionRectangle.getHeight()), f.getImagePath()));
             } else {
                 this.fills.add(f);
             }
@@ -90,6 +95,19 @@ public class Block implements Collidable, Sprite, HitNotifier {
         this.hitListeners = new ArrayList<HitListener>();
     }
 
+    /**
+     * A copy constructor for a Block. The copy has the same shape, looks and
+     * HP as 'other', but none of its HitListeners.
+     * @param other the Block to copy.
+     */
+    public Block(Block other) {
+        this.collisionRectangle = other.collisionRectangle;
+        this.fills = new ArrayList<>(other.fills);
+        this.stroke = other.stroke;
+        this.hitPoints = other.hitPoints;
+        this.hitListeners = new ArrayList<HitListener>();
+    }
+
     /**
      * @return the "collision shape" of the object.
      */
@@ -104,6 +122,20 @@ public class Block implements Collidable, Sprite, HitNotifier {
         return this.fills.get(Math.max(0, this.hitPoints - 1));
     }
 
+    /**
+     * @return the Block's Fills, the k-th being its Fill when it has k hit points.
+     */
+    public List<Fill> getFills() {
+        return java.util.Collections.unmodifiableList(this.fills);
+    }
+
+    /**
+     * @return the Block's stroke, or null if it has none.
+     */
+    public Fill getStroke() {
+        return this.stroke;
+    }
+
     /**
      * @return this Block's hitPoints.
      */
@@ -119,6 +151,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
         int index = Math.max(0, this.hitPoints - 1);
         this.fills.remove(index);
         this.fills.add(index, f);
+        this.snapshot = null;
     }
 
     /**
@@ -127,6 +160,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     public void setCollisionRectangle(Rectangle rect) {
         this.collisionRectangle = rect;
+        this.snapshot = null;
     }
 
     /**
@@ -182,6 +216,7 @@ public class Block implements Collidable, Sprite, HitNotifier {
         }
         if (this.hitPoints != 0) {
             hitPoints--;
+            this.snapshot = null;
         }
 
         // notifies about the hit and returns the new speed.
@@ -195,29 +230,66 @@ public class Block implements Collidable, Sprite, HitNotifier {
      */
     public void drawOn(DrawSurface surface) {
         Point upperLeft = this.collisionRectangle.getUpperLeft();
-        double x = upperLeft.getX();
-        double y = upperLeft.getY();
+        this.drawAt(surface, upperLeft.getX(), upperLeft.getY());
+    }
 
-        // Draw the Block itself
-        Fill f;
-        f = this.fills.get(Math.max(0, this.hitPoints - 1));
+    /**
+     * Draws the Block on the given DrawSurface, with its upper-left corner at (x, y).
+     * @param surface the DrawSurface to draw the Block on.
+     * @param x the x to draw the Block's upper-left corner at.
+     * @param y the y to draw the Block's upper-left corner at.
+     */
+    public void drawAt(DrawSurface surface, double x, double y) {
+        drawBlock(surface, (int) x, (int) y, (int) this.getWidth(), (int) this.getHeight(),
+                  this.fills.get(Math.max(0, this.hitPoints - 1)), this.stroke);
+    }
+
+    /**
+     * Draws a Block on the given DrawSurface.
+     * @param surface the DrawSurface to draw the Block on.
+     * @param x the Block's upper-left corner's x.
+     * @param y the Block's upper-left corner's y.
+     * @param width the Block's width.
+     * @param height the Block's height.
+     * @param f the Block's Fill.
+     * @param stroke the Block's stroke, or null.
+     */
+    private static void drawBlock(DrawSurface surface, int x, int y, int width, int height, Fill f, Fill stroke) {
 
         // if it should be coloured, color it.
         if (f.getColor() != null) {
             surface.setColor(f.getColor());
-            surface.fillRectangle((int) x, (int) y, (int) this.getWidth(), (int) this.getHeight());
+            surface.fillRectangle(x, y, width, height);
         } else if (f.getImage() != null) {
 
             // if there should be an image instead, put it on the block as a "decorator".
             surface.setColor(Color.BLUE);
-            surface.fillRectangle((int) x, (int) y, (int) this.getWidth(), (int) this.getHeight());
-            surface.drawImage((int) x, (int) y, f.getImage());
+            surface.fillRectangle(x, y, width, height);
+            surface.drawImage(x, y, f.getImage());
+        }
+
+        if (stroke != null) {
+            surface.setColor(stroke.getColor());
+            surface.drawRectangle(x, y, width, height);
         }
+    }
 
-        if (this.stroke != null) {
-            surface.setColor(this.stroke.getColor());
-            surface.drawRectangle((int) x, (int) y, (int) this.getWidth(), (int) this.getHeight());
+    /**
+     * @return a Sprite that draws this Block as it looks right now. It's kept
+     * until the Block's look changes.
+     */
+    public Sprite snapshot() {
+        if (this.snapshot == null) {
+            Point upperLeft = this.collisionRectangle.getUpperLeft();
+            int x = (int) upperLeft.getX();
+            int y = (int) upperLeft.getY();
+            int width = (int) this.getWidth();
+            int height = (int) this.getHeight();
+            Fill f = this.fills.get(Math.max(0, this.hitPoints - 1));
+            Fill s = this.stroke;
+            this.snapshot = new FrozenSprite(d -> drawBlock(d, x, y, width, height, f, s));
         }
+        return this.snapshot;
     }
 
     /**
@@ -232,7 +304,8 @@ public class Block implements Collidable, Sprite, HitNotifier {
      * @param g the game to add this Block to
      */
     public void addToGame(GameLevel g) {
-        g.addSprite(this);
+        // Blocks don't move, so they're only drawn again when they change
+        g.addStaticSprite(this);
         g.addCollidable(this);
     }
 
@@ -11,17 +11,23 @@ import game.objects.ball.Ball;
 import game.objects.ball.Velocity;
 import game.objects.collidable.Collidable;
 import game.objects.collidable.CollisionInfo;
+import game.objects.sprite.BoundedSprite;
+import game.objects.sprite.InterpolatedSprite;
+import game.objects.sprite.Snapshottable;
 import game.objects.sprite.Sprite;
 /**
  * @author Yuval Ezra
  * A paddle.
  */
-public class Paddle implements Sprite, Collidable {
+public class Paddle implements InterpolatedSprite, BoundedSprite, Snapshottable, Collidable {
    private biuoop.KeyboardSensor keyboard;
    private Block block;
    private double speed;
    private GameEnvironment env;
 
+   // the Paddle's x before it last moved, NaN if it was just placed
+   private double previousX;
+
    /**
     * A Paddle constructor.
     * @param block the Paddle's Block.
@@ -33,6 +39,7 @@ public class Paddle implements Sprite, Collidable {
        this.block = block;
        this.keyboard = keyboard;
        this.speed = speed;
+       this.previousX = Double.NaN;
    }
 
    /**
@@ -87,6 +94,7 @@ public class Paddle implements Sprite, Collidable {
     * @param dt the time interval between drawings.
     */
    public void timePassed(double dt) {
+       this.previousX = this.getX();
        if (this.keyboard.isPressed(biuoop.KeyboardSensor.LEFT_KEY)) {
            this.moveLeft(dt);
        }
@@ -103,6 +111,43 @@ public class Paddle implements Sprite, Collidable {
        this.block.drawOn(d);
    }
 
+   /**
+    * Draws the Paddle on the given DrawSurface 'd', in between where it was
+    * before it last moved and where it is now.
+    * @param d the given DrawSurface.
+    * @param alpha how far between the previous position (0) and the current one (1) to draw it.
+    */
+   public void drawOn(DrawSurface d, double alpha) {
+       if (Double.isNaN(this.previousX)) {
+           this.drawOn(d);
+           return;
+       }
+       double x = this.previousX + (this.getX() - this.previousX) * alpha;
+       this.block.drawAt(d, x, this.getY());
+   }
+
+   @Override
+   public java.awt.Rectangle getBounds() {
+       java.awt.Rectangle bounds = this.getCollisionRectangle().getPixelBounds();
+       if (!Double.isNaN(this.previousX)) {
+           bounds.add(new Rectangle(new Point(this.previousX, this.getY()), this.getWidth(),
+                                    this.getHeight()).getPixelBounds());
+       }
+       return bounds;
+   }
+
+   @Override
+   public Object getLook() {
+       return this.block.getColor().getColor();
+   }
+
+   /**
+    * @return a Sprite that draws this Paddle where it is right now.
+    */
+   public Sprite snapshot() {
+       return this.block.snapshot();
+   }
+
    /**
     * @return the Paddle's collision Rectangle.
     */
@@ -196,8 +241,9 @@ public class Paddle implements Sprite, Collidable {
     * @param g the game to add this Paddle to
     */
    public void addToGame(GameLevel g) {
+       this.previousX = Double.NaN;
        g.addSprite(this);
-       g.addCollidable(this);
+       g.addMovingCollidable(this);
    }
 
    /**
@@ -5,18 +5,29 @@ import biuoop.DrawSurface;
 import game.collections.GameEnvironment;
 import game.geometry.Line;
 import game.geometry.Point;
+import game.geometry.Rectangle;
 import game.levels.GameLevel;
 import game.objects.Paddle;
 import game.objects.collidable.Collidable;
 import game.objects.collidable.CollisionInfo;
+import game.objects.sprite.BoundedSprite;
+import game.objects.sprite.FrozenSprite;
+import game.objects.sprite.InterpolatedSprite;
+import game.objects.sprite.Snapshottable;
 import game.objects.sprite.Sprite;
 /**
  * @author Yuval Ezra
  * A Ball.
  */
-public class Ball implements Sprite {
+public class Ball implements InterpolatedSprite, BoundedSprite, Snapshottable {
+
+    // the most Collidables the Ball bounces off of in a single step
+    private static final int MAX_BOUNCES = 8;
 
     private Point center;
+
+    // the Ball's center before its last step
+    private Point previousCenter;
     private int size;
     private java.awt.Color color;
     private Velocity v;
@@ -30,6 +41,7 @@ public class Ball implements Sprite {
      */
     public Ball(Point center, int radius, java.awt.Color color) {
         this.center = new Point(center.getX(), center.getY());
+        this.previousCenter = this.center;
         this.size = radius;
         this.color = color;
         this.v = new Velocity(0, 0);
@@ -45,6 +57,7 @@ public class Ball implements Sprite {
      */
     public Ball(int x, int y, int radius, java.awt.Color color) {
         this.center = new Point(x, y);
+        this.previousCenter = this.center;
         this.size = radius;
         this.color = color;
         this.v = new Velocity(0, 0);
@@ -57,6 +70,7 @@ public class Ball implements Sprite {
      */
     public Ball(Ball other) {
         this.center = new Point(other.getX(), other.getY());
+        this.previousCenter = this.center;
         this.size = other.getSize();
         this.color = other.getColor();
         this.v = other.getVelocity();
@@ -136,6 +150,7 @@ public class Ball implements Sprite {
      */
     public void setCenter(Point newCenter) {
         this.center = new Point(newCenter.getX(), newCenter.getY());
+        this.previousCenter = this.center;
     }
 
     /**
@@ -151,12 +166,72 @@ public class Ball implements Sprite {
      * @param surface the DrawSurface to draw the Ball on.
      */
     public void drawOn(DrawSurface surface) {
+        this.drawAt(surface, (int) this.center.getX(), (int) this.center.getY());
+    }
+
+    /**
+     * Draws the Ball on the given DrawSurface, in between its center before
+     * its last step and its current center.
+     * @param surface the DrawSurface to draw the Ball on.
+     * @param alpha how far between the previous center (0) and the current one (1) to draw it.
+     */
+    public void drawOn(DrawSurface surface, double alpha) {
+        double x = this.previousCenter.getX() + (this.center.getX() - this.previousCenter.getX()) * alpha;
+        double y = this.previousCenter.getY() + (this.center.getY() - this.previousCenter.getY()) * alpha;
+        this.drawAt(surface, (int) x, (int) y);
+    }
+
+    /**
+     * Draws the Ball on the given DrawSurface, centered at (x, y).
+     * @param surface the DrawSurface to draw the Ball on.
+     * @param x the x to draw the Ball's center at.
+     * @param y the y to draw the Ball's center at.
+     */
+    private void drawAt(DrawSurface surface, int x, int y) {
+        drawBall(surface, x, y, this.size, this.color);
+    }
+
+    /**
+     * Draws a Ball on the given DrawSurface.
+     * @param surface the DrawSurface to draw the Ball on.
+     * @param x the Ball's center's x.
+     * @param y the Ball's center's y.
+     * @param radius the Ball's radius.
+     * @param color the Ball's colour.
+     */
+    private static void drawBall(DrawSurface surface, int x, int y, int radius, java.awt.Color color) {
+        surface.setColor(color);
+        surface.fillCircle(x, y, radius);
+        surface.setColor(Color.BLACK);
+        surface.drawCircle(x, y, radius);
+    }
+
+    @Override
+    public java.awt.Rectangle getBounds() {
+        double minX = Math.min(this.previousCenter.getX(), this.center.getX());
+        double minY = Math.min(this.previousCenter.getY(), this.center.getY());
+        double maxX = Math.max(this.previousCenter.getX(), this.center.getX());
+        double maxY = Math.max(this.previousCenter.getY(), this.center.getY());
+        int x = (int) Math.floor(minX) - this.size - 1;
+        int y = (int) Math.floor(minY) - this.size - 1;
+        return new java.awt.Rectangle(x, y, (int) Math.ceil(maxX) + this.size + 2 - x,
+                                      (int) Math.ceil(maxY) + this.size + 2 - y);
+    }
+
+    @Override
+    public Object getLook() {
+        return this.color;
+    }
+
+    /**
+     * @return a Sprite that draws this Ball where it is right now.
+     */
+    public Sprite snapshot() {
         int x = (int) this.center.getX();
         int y = (int) this.center.getY();
-        surface.setColor(this.color);
-        surface.fillCircle(x, y, this.size);
-        surface.setColor(Color.BLACK);
-        surface.drawCircle(x, y, this.size);
+        int radius = this.size;
+        java.awt.Color c = this.color;
+        return new FrozenSprite(d -> drawBall(d, x, y, radius, c));
     }
 
     /**
@@ -177,82 +252,105 @@ public class Ball implements Sprite {
     }
 
     /**
-     * Moves the Ball one step.
+     * Moves the Ball one step. The Ball is swept along its path as a circle,
+     * so it stops exactly where it touches a Collidable, bounces off it and
+     * keeps moving for the rest of 'dt' - up to MAX_BOUNCES times.
      * @param dt the time interval between frames.
      */
     public void moveOneStep(double dt) {
-        // This Ball's trajectory
-        Velocity newV = new Velocity(this.v.getDX() * dt, this.v.getDY() * dt);
-        Line trajectory = new Line(this.center, newV.applyToPoint(this.center));
-
-        // The Collidables the Ball will hit
-        java.util.List<CollisionInfo> obstacles = this.environment.getClosestCollisions(trajectory);
-        if (obstacles == null) {
-            this.center = newV.applyToPoint(this.center);
-            return;
-        }
-        for (CollisionInfo c : obstacles) {
-            Point collision = c.collisionPoint();
-            if (collision != null) {
-                if (c.collisionObject() instanceof Paddle) {
-                    // Handle the case of a Ball inside the paddle
-                    this.handleInsidePaddle(c.collisionObject());
-                }
-
-                // Sets the Ball's new center and speed
-                this.moveToCollision(c.collisionObject());
-                this.setVelocity(c.collisionObject().hit(this, collision, this.v));
+        this.handleInsidePaddles();
+
+        double timeLeft = dt;
+        for (int bounce = 0; bounce < MAX_BOUNCES && timeLeft > 0; bounce++) {
+            double x = this.getX();
+            double y = this.getY();
+            double dx = this.v.getDX() * timeLeft;
+            double dy = this.v.getDY() * timeLeft;
+            Line trajectory = new Line(x, y, x + dx, y + dy);
+
+            // The Collidables the Ball will touch first
+            java.util.List<CollisionInfo> obstacles = this.environment.getClosestCollisions(trajectory, this.size);
+            if (obstacles == null) {
+                this.center = new Point(x + dx, y + dy);
+                return;
             }
-        }
-    }
 
-    /**
-     * Moves the Ball to it's collision point with 'c'.
-     * @param c the Collidable that collides with this Ball.
-     */
-    public void moveToCollision(Collidable c) {
-        Line trajectory = new Line(this.center, this.v.applyToPoint(this.center));
-        Point corner = c.getCollisionRectangle().getUpperLeft();
-        Point collision = trajectory.closestIntersectionToStartOfLine(c.getCollisionRectangle());
-        if (collision == null) {
-            return;
-        }
+            // Move the Ball to where it touches them
+            Rectangle first = obstacles.get(0).collisionObject().getCollisionRectangle();
+            double t = first.sweepHitT(x, y, dx, dy, this.size);
+            int face = first.sweepHitFace(x, y, dx, dy, this.size);
+            this.center = this.touching(first, face, x + t * dx, y + t * dy);
 
-        // Variables regarding the points for comfort
-        double colX = collision.getX();
-        double colY = collision.getY();
-        double cornerX = corner.getX();
-        double cornerY = corner.getY();
-        double wid = c.getCollisionRectangle().getWidth();
-        double height = c.getCollisionRectangle().getHeight();
-
-        // An epsilon
-        double epsilon = 0.01;
-
-        double leftBorder = cornerX;
-        double rightBorder = (cornerX + wid);
-        double topBorder = cornerY;
-        double bottomBorder = (cornerY + height);
-
-        // Checking if the Ball is about to hit any border of the Collidable
-        if (leftBorder - epsilon < colX && colX < leftBorder && this.v.getDX() >= 0) {
+            // Bounce off of all of them
+            for (CollisionInfo c : obstacles) {
+                this.setVelocity(c.collisionObject().hit(this, c.collisionPoint(), this.v));
+            }
+            timeLeft -= t * timeLeft;
 
-            // Moving the Ball's perimeter to the edge of the Collidable
-            this.center = new Point(leftBorder - this.size, this.getY());
+            // If the hit didn't turn the Ball away, don't hit the same side again.
+            if (this.movesInto(face)) {
+                return;
+            }
         }
+    }
 
-        if (rightBorder < colX && colX < rightBorder + epsilon && this.v.getDX() <= 0) {
-            this.center = new Point(rightBorder + this.size, this.getY());
+    /**
+     * Puts the Ball's center exactly on the side it touches, so rounding
+     * can't leave the Ball overlapping the Rectangle.
+     * @param rect the Rectangle the Ball touches.
+     * @param face the side of 'rect' that the Ball touches.
+     * @param x the center's x when touching.
+     * @param y the center's y when touching.
+     * @return the center of the Ball when touching 'rect'.
+     */
+    private Point touching(Rectangle rect, int face, double x, double y) {
+        Point corner = rect.getUpperLeft();
+        switch (face) {
+            case Rectangle.LEFT:
+                return new Point(corner.getX() - this.size, y);
+            case Rectangle.RIGHT:
+                return new Point(corner.getX() + rect.getWidth() + this.size, y);
+            case Rectangle.TOP:
+                return new Point(x, corner.getY() - this.size);
+            case Rectangle.BOTTOM:
+                return new Point(x, corner.getY() + rect.getHeight() + this.size);
+            default:
+                return new Point(x, y);
         }
+    }
 
-        if (topBorder - epsilon < colY && colY < topBorder && this.v.getDY() >= 0) {
-            this.center = new Point(this.getX(), topBorder - this.size);
+    /**
+     * @param face a side of a Rectangle.
+     * @return true if this Ball's Velocity goes into that side, false otherwise.
+     */
+    private boolean movesInto(int face) {
+        switch (face) {
+            case Rectangle.LEFT:
+                return this.v.getDX() > 0;
+            case Rectangle.RIGHT:
+                return this.v.getDX() < 0;
+            case Rectangle.TOP:
+                return this.v.getDY() > 0;
+            case Rectangle.BOTTOM:
+                return this.v.getDY() < 0;
+            default:
+                return false;
         }
+    }
 
-        if (bottomBorder < colY && colY < bottomBorder + epsilon && this.v.getDY() <= 0) {
-            this.center = new Point(this.getX(), bottomBorder + this.size);
+    /**
+     * Moves the Ball out of any Paddle that moved into it.
+     */
+    private void handleInsidePaddles() {
+        java.util.List<Collidable> moving = this.environment.getMovingObstacles();
+        for (int i = 0; i < moving.size(); i++) {
+            Collidable c = moving.get(i);
+            if (c instanceof Paddle && c.getCollisionRectangle().contains(this.getX(), this.getY(), this.size)) {
+                this.handleInsidePaddle(c);
+            }
         }
     }
+
     /**
      * Puts the Ball outside of the Paddle when it's in the Paddle.
      * @param p the Paddle to move to Ball out of.
@@ -262,28 +360,27 @@ public class Ball implements Sprite {
         double cornerX = corner.getX();
         double cornerY = corner.getY();
         double wid = p.getCollisionRectangle().getWidth();
-        double height = p.getCollisionRectangle().getHeight();
-
-        Point newCenter = new Point(this.getX(), this.getY());
-        // If the Ball is in the Paddle Y axis wise
-        if (cornerY < this.getY() && this.getY() <= cornerY + height) {
 
-            // And x axis wise, and is on the first half of the Paddle
-            if (cornerX < this.getX() && this.getX() < (cornerX + wid / 2)) {
-                newCenter = new Point(cornerX - this.size, this.getY());
-            } else if (cornerX + wid / 2 <= this.getX() && this.getX() < cornerX + wid) {
+        // If the Ball is above the Paddle's top, put it on top of the Paddle
+        if (this.getY() <= cornerY) {
+            this.center = new Point(this.getX(), cornerY - this.size);
+            return;
+        }
 
-                // On the second half of the Paddle
-                newCenter = new Point(cornerX + wid + this.size, this.getY());
-            }
+        // Else push it out of the side it's closer to
+        Point newCenter;
+        if (this.getX() < cornerX + wid / 2) {
+            newCenter = new Point(cornerX - this.size, this.getY());
+        } else {
+            newCenter = new Point(cornerX + wid + this.size, this.getY());
         }
 
-        // Checks if the ball was moved into a Collidable
-        Line trajectory = new Line(newCenter, this.center);
-        CollisionInfo c = this.environment.getClosestCollision(trajectory);
+        // Checks if the ball would be pushed into a Collidable
+        Line trajectory = new Line(this.center, newCenter);
+        java.util.List<CollisionInfo> c = this.environment.getClosestCollisions(trajectory, this.size);
 
-        // If it collided with anything, move it above the paddle to make it "pop"
-        if (c != null && c.collisionObject() != p) {
+        // If it would, move it above the paddle to make it "pop"
+        if (c != null) {
             this.center = new Point(this.getX(), cornerY - this.size);
         } else {
 
@@ -297,6 +394,7 @@ public class Ball implements Sprite {
      * @param dt the time interval between calls.
      */
     public void timePassed(double dt) {
+        this.previousCenter = this.center;
         this.moveOneStep(dt);
     }
 }
\ No newline at end of file
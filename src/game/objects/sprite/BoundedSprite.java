@@ -0,0 +1,22 @@
+package game.objects.sprite;
+/**
+ * @author Yuval Ezra
+ * A Sprite that knows where on the screen it's drawn, so only the parts of
+ * the screen it moved or changed in need to be drawn again.
+ */
+public interface BoundedSprite extends Sprite {
+
+   /**
+    * @return the area the Sprite is drawn in right now, or an empty Rectangle
+    * if it isn't drawn at all. An InterpolatedSprite's area covers both its
+    * previous and current positions.
+    */
+   java.awt.Rectangle getBounds();
+
+   /**
+    * @return a value that's equal (by equals()) between two frames only if the
+    * Sprite looks the same in both, given the same bounds, or null if it has
+    * to be drawn again every frame.
+    */
+   Object getLook();
+}
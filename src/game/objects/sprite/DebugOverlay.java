@@ -0,0 +1,151 @@
+package game.objects.sprite;
+import java.awt.Color;
+
+import biuoop.DrawSurface;
+import biuoop.KeyboardSensor;
+import game.animation.FrameStats;
+import game.levels.GameLevel;
+
+/**
+ * @author Yuval Ezra.
+ * A debug overlay, toggled by a key: a graph of the last frame times, their
+ * percentiles, and the number of Collidables and Balls in the game.
+ * It's Snapshottable, so it can be shown when the game is simulated on a
+ * thread of its own.
+ */
+public class DebugOverlay implements BoundedSprite, Snapshottable {
+
+    // the time a frame has at 60 FPS, drawn as a line on the graph
+    private static final double FRAME_BUDGET_MS = 1000.0 / 60;
+    // the graph's height in pixels per millisecond
+    private static final double PIXELS_PER_MS = 2;
+
+    private static final int X = 540;
+    private static final int Y = 50;
+    private static final int WIDTH = 240;
+    private static final int GRAPH_HEIGHT = 60;
+
+    private static final Sprite HIDDEN = new FrozenSprite(d -> { });
+
+    private FrameStats stats;
+    private GameLevel game;
+    private KeyboardSensor keyboard;
+    private String toggleKey;
+    private boolean visible;
+    private boolean isAlreadyPressed;
+
+    /**
+     * A constructor for DebugOverlay. It starts hidden.
+     * @param stats the frame timings to show.
+     * @param game the game whose Collidables and Balls are counted.
+     * @param keyboard the keyboard to read the toggle key from.
+     * @param toggleKey the key that shows and hides the overlay.
+     */
+    public DebugOverlay(FrameStats stats, GameLevel game, KeyboardSensor keyboard, String toggleKey) {
+        this.stats = stats;
+        this.game = game;
+        this.keyboard = keyboard;
+        this.toggleKey = toggleKey;
+        this.visible = false;
+        this.isAlreadyPressed = true;
+    }
+
+    @Override
+    public void drawOn(DrawSurface d) {
+        this.snapshot().drawOn(d);
+    }
+
+    @Override
+    public Sprite snapshot() {
+        if (!this.visible) {
+            return HIDDEN;
+        }
+
+        // copying the values, so the snapshot can be drawn on another thread
+        String[] lines = {
+            "frame p50 " + ms(this.stats.framePercentile(50)) + " p99 "
+                + ms(this.stats.framePercentile(99)) + " max " + ms(this.stats.frameMax()),
+            "update " + ms(this.stats.percentile(FrameStats.UPDATE, 99))
+                + " draw " + ms(this.stats.percentile(FrameStats.DRAW, 99))
+                + " show " + ms(this.stats.percentile(FrameStats.SHOW, 99)) + " (p99)",
+            "sleep overshoot p99 " + ms(this.stats.percentile(FrameStats.OVERSHOOT, 99))
+                + " gc max " + ms(this.stats.max(FrameStats.GC)),
+
+            // the moving obstacles are among the obstacles too
+            "collidables " + this.game.getEnvironment().getObstacles().size()
+                + " balls " + this.game.getBalls().size()};
+        double[] frameMs = new double[Math.min(this.stats.size(), WIDTH - 10)];
+        for (int age = 0; age < frameMs.length; age++) {
+            frameMs[age] = this.stats.frameTime(age) / 1e6;
+        }
+        return new FrozenSprite(d -> drawValues(d, lines, frameMs));
+    }
+
+    /**
+     * Draws the overlay.
+     * @param d the DrawSurface to draw on.
+     * @param lines the lines of text to show.
+     * @param frameMs the last frame times in milliseconds, the newest first.
+     */
+    private static void drawValues(DrawSurface d, String[] lines, double[] frameMs) {
+        int graphTop = Y + 70;
+        d.setColor(Color.BLACK);
+        d.fillRectangle(X, Y, WIDTH, graphTop - Y + GRAPH_HEIGHT + 5);
+
+        d.setColor(Color.WHITE);
+        for (int i = 0; i < lines.length; i++) {
+            d.drawText(X + 5, Y + 14 * (i + 1), lines[i], 12);
+        }
+
+        // a bar per frame, the newest on the right
+        int bottom = graphTop + GRAPH_HEIGHT;
+        for (int age = 0; age < frameMs.length; age++) {
+            int height = (int) Math.min(GRAPH_HEIGHT, frameMs[age] * PIXELS_PER_MS);
+            d.setColor(frameMs[age] > FRAME_BUDGET_MS ? Color.RED : Color.GREEN);
+            int x = X + WIDTH - 5 - age;
+            d.drawLine(x, bottom, x, bottom - height);
+        }
+        d.setColor(Color.YELLOW);
+        int budget = bottom - (int) (FRAME_BUDGET_MS * PIXELS_PER_MS);
+        d.drawLine(X + 5, budget, X + WIDTH - 5, budget);
+    }
+
+    /**
+     * @return true if the overlay is shown.
+     */
+    public boolean isVisible() {
+        return this.visible;
+    }
+
+    @Override
+    public java.awt.Rectangle getBounds() {
+        if (!this.visible) {
+            return new java.awt.Rectangle();
+        }
+        return new java.awt.Rectangle(X, Y, WIDTH, 70 + GRAPH_HEIGHT + 5);
+    }
+
+    @Override
+    public Object getLook() {
+        // the timings change every frame
+        return this.visible ? null : Boolean.FALSE;
+    }
+
+    @Override
+    public void timePassed(double dt) {
+        if (!this.keyboard.isPressed(this.toggleKey)) {
+            this.isAlreadyPressed = false;
+        } else if (!this.isAlreadyPressed) {
+            this.visible = !this.visible;
+            this.isAlreadyPressed = true;
+        }
+    }
+
+    /**
+     * @param nanoseconds a time in nanoseconds.
+     * @return the time in milliseconds, with a single decimal place.
+     */
+    private static String ms(long nanoseconds) {
+        return Math.round(nanoseconds / 1e5) / 10.0 + "ms";
+    }
+}
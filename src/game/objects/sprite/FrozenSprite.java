@@ -0,0 +1,29 @@
+package game.objects.sprite;
+import java.util.function.Consumer;
+
+import biuoop.DrawSurface;
+
+/**
+ * @author Yuval Ezra
+ * A Sprite that never changes - it always draws the same thing.
+ */
+public class FrozenSprite implements Sprite {
+    private Consumer<DrawSurface> drawing;
+
+    /**
+     * A constructor for FrozenSprite.
+     * @param drawing what to draw - it must not depend on anything that changes.
+     */
+    public FrozenSprite(Consumer<DrawSurface> drawing) {
+        this.drawing = drawing;
+    }
+
+    @Override
+    public void drawOn(DrawSurface d) {
+        this.drawing.accept(d);
+    }
+
+    @Override
+    public void timePassed(double dt) {
+    }
+}
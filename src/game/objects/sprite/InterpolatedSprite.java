@@ -0,0 +1,16 @@
+package game.objects.sprite;
+import biuoop.DrawSurface;
+/**
+ * @author Yuval Ezra
+ * A Sprite that can be drawn in between its previous and current positions.
+ */
+public interface InterpolatedSprite extends Sprite {
+
+   /**
+    * Draw the sprite to the screen, in between its previous and current positions.
+    * @param d the drawSurface to draw the Sprite on.
+    * @param alpha how far between the previous position (0) and the current
+    * one (1) to draw the Sprite.
+    */
+   void drawOn(DrawSurface d, double alpha);
+}
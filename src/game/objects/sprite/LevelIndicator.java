@@ -7,7 +7,7 @@ import game.objects.Block;
  * @author Yuval Ezra.
  * A level indicator.
  */
-public class LevelIndicator implements Sprite {
+public class LevelIndicator implements BoundedSprite {
     private String name;
     private Block board;
 
@@ -33,6 +33,16 @@ public class LevelIndicator implements Sprite {
         d.drawText(drawX, drawY, "Level Name: " + this.name, 15);
     }
 
+    @Override
+    public java.awt.Rectangle getBounds() {
+        return this.board.getCollisionRectangle().getPixelBounds();
+    }
+
+    @Override
+    public Object getLook() {
+        return this.name;
+    }
+
     @Override
     public void timePassed(double dt) {
         // TODO Auto-generated method stub
@@ -8,7 +8,7 @@ import game.objects.Block;
  * @author Yuval Ezra.
  * A lives indicator.
  */
-public class LivesIndicator implements Sprite {
+public class LivesIndicator implements BoundedSprite, Snapshottable {
     private Counter lives;
     private Block board;
 
@@ -24,6 +24,31 @@ public class LivesIndicator implements Sprite {
 
     @Override
     public void drawOn(DrawSurface d) {
+        this.drawValue(d, this.lives.getValue());
+    }
+
+    @Override
+    public java.awt.Rectangle getBounds() {
+        return this.board.getCollisionRectangle().getPixelBounds();
+    }
+
+    @Override
+    public Object getLook() {
+        return this.lives.getValue();
+    }
+
+    @Override
+    public Sprite snapshot() {
+        int value = this.lives.getValue();
+        return new FrozenSprite(d -> this.drawValue(d, value));
+    }
+
+    /**
+     * Draws the indicator on 'd', showing 'value'.
+     * @param d the DrawSurface to draw on.
+     * @param value the lives to show.
+     */
+    private void drawValue(DrawSurface d, int value) {
         Point upperLeft = this.board.getCollisionRectangle().getUpperLeft();
         double x = upperLeft.getX();
         double y = upperLeft.getY();
@@ -31,7 +56,7 @@ public class LivesIndicator implements Sprite {
         d.setColor(java.awt.Color.BLACK);
         int drawX =  (int) (x +  this.board.getWidth() / 6) - 50;
         int drawY =  (int) (y + this.board.getHeight() / 4) + 9;
-        d.drawText(drawX, drawY, "Lives: " + Integer.toString(this.lives.getValue()), 15);
+        d.drawText(drawX, drawY, "Lives: " + Integer.toString(value), 15);
     }
 
     @Override
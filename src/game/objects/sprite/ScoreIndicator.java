@@ -8,7 +8,7 @@ import game.objects.Block;
  * @author Yuval Ezra.
  * A lives indicator.
  */
-public class ScoreIndicator implements Sprite {
+public class ScoreIndicator implements BoundedSprite, Snapshottable {
     private Counter score;
     private Block board;
 
@@ -24,6 +24,31 @@ public class ScoreIndicator implements Sprite {
 
     @Override
     public void drawOn(DrawSurface d) {
+        this.drawValue(d, this.score.getValue());
+    }
+
+    @Override
+    public java.awt.Rectangle getBounds() {
+        return this.board.getCollisionRectangle().getPixelBounds();
+    }
+
+    @Override
+    public Object getLook() {
+        return this.score.getValue();
+    }
+
+    @Override
+    public Sprite snapshot() {
+        int value = this.score.getValue();
+        return new FrozenSprite(d -> this.drawValue(d, value));
+    }
+
+    /**
+     * Draws the indicator on 'd', showing 'value'.
+     * @param d the DrawSurface to draw on.
+     * @param value the score to show.
+     */
+    private void drawValue(DrawSurface d, int value) {
         board.drawOn(d);
         Point upperLeft = this.board.getCollisionRectangle().getUpperLeft();
         double x = upperLeft.getX();
@@ -32,7 +57,7 @@ public class ScoreIndicator implements Sprite {
         d.setColor(java.awt.Color.BLACK);
         int drawX =  (int) (x +  this.board.getWidth() / 2) - 50;
         int drawY =  (int) (y + this.board.getHeight() / 2) + 4;
-        d.drawText(drawX, drawY, "Score: " + Integer.toString(this.score.getValue()), 15);
+        d.drawText(drawX, drawY, "Score: " + Integer.toString(value), 15);
     }
 
     @Override
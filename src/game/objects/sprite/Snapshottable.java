@@ -0,0 +1,14 @@
+package game.objects.sprite;
+/**
+ * @author Yuval Ezra
+ * A Sprite whose look changes over time, and that can be copied into an
+ * unchanging Sprite that's safe to draw from another thread.
+ */
+public interface Snapshottable {
+
+   /**
+    * @return a Sprite that draws this Sprite as it looks right now, and
+    * never changes.
+    */
+   Sprite snapshot();
+}